@@ -10,7 +10,13 @@ import Levels.LevelManager;
 import audio.controller.AudioController;
 import entities.Player;
 import main.controller.GameController;
+import main.controller.loop.AllocationProbe;
+import main.controller.loop.CatchUpPolicy;
+import main.controller.loop.LoopScheduler;
+import main.controller.loop.ParkingLoopScheduler;
 import main.model.GameModel;
+import main.model.RenderSnapshotBuffer;
+import main.model.leaderboard.LeaderboardStore;
 import main.observerEvents.GameEventListener;
 import main.observerEvents.PlayerEventListener;
 import main.states.GameBaseState;
@@ -21,9 +27,11 @@ import main.states.LevelSelectState;
 import main.states.MainMenu;
 import main.states.MenuState;
 import main.states.PlayingState;
+import main.view.GameCanvas;
 import main.view.GamePanel;
 import main.view.GameView;
 import main.view.GameWindow;
+import main.view.RenderSurface;
 import utilz.LoadSave;
 
 public class Game extends PlayerEventListener implements Runnable {
@@ -35,16 +43,24 @@ public class Game extends PlayerEventListener implements Runnable {
     public static final int TILES_SIZE = (int) (TILES_DEAFULT_SIZE * SCALE);
     public static final int GAME_WIDTH = TILES_SIZE * TILES_IN_WIDTH;
     public static final int GAME_HEIGHT = TILES_SIZE * TILES_IN_HEIGHT;
+    // Turned on with -Dgame.dev=true: level hot reload, the image cache stats and the loop stats
+    public static final boolean DEV_MODE = Boolean.getBoolean("game.dev");
 
     public MainMenu mainMenu;
     public Leaderboard leaderboard;
     public LevelSelect levelSelect;
 
-    private GamePanel gamePanel;
+    private RenderSurface renderSurface;
     private GameWindow gameWindow;
     private Thread gametThread;
     private final int FPS_SET = 120;
     private final int UPS_SET = 200;
+    private volatile LoopScheduler loopScheduler = new ParkingLoopScheduler();
+    private final CatchUpPolicy catchUpPolicy = new CatchUpPolicy();
+    // Only measured for the dev stats, the probe costs two ThreadMXBean calls per tick
+    private final AllocationProbe tickAllocations = DEV_MODE ? new AllocationProbe() : null;
+    // Fraction of an update tick that has passed since the last update, used to interpolate rendering
+    private volatile float renderAlpha = 1f;
 
     private Player player;
     private LevelManager levelManager;
@@ -68,6 +84,7 @@ public class Game extends PlayerEventListener implements Runnable {
     private GameModel model;
     private GameController controller;
     private GameView view;
+    private final RenderSnapshotBuffer snapshots = new RenderSnapshotBuffer();
 
     public Game() {
         audioController = AudioController.getInstance();
@@ -76,14 +93,24 @@ public class Game extends PlayerEventListener implements Runnable {
         if (currentState != null) {
             currentState.onEnter();
         }
-        gamePanel = new GamePanel(this);
-        gameWindow = new GameWindow(gamePanel);
-        gamePanel.requestFocus();
+        renderSurface = createRenderSurface();
+        gameWindow = new GameWindow(renderSurface);
+        renderSurface.getComponent().requestFocus();
 
         startGameLoop();
     }
 
+    // Active rendering (Canvas + BufferStrategy) unless -Dgame.rendering=passive asks for the JPanel fallback
+    private RenderSurface createRenderSurface() {
+        if ("passive".equalsIgnoreCase(System.getProperty("game.rendering", "active"))) {
+            return new GamePanel(this);
+        }
+        return new GameCanvas(this);
+    }
+
     private void initClasses() {
+        LoadSave.preloadStartupImages();
+        LeaderboardStore.getInstance().load();
         levelManager = new LevelManager(this);
         player = new Player(200, 550, (int) (32 * SCALE), (int) (32 * SCALE));
         player.setPlayerEventListener(this);
@@ -91,7 +118,7 @@ public class Game extends PlayerEventListener implements Runnable {
 
         model = new GameModel(player, levelManager);
         controller = new GameController(model, player, levelManager);
-        view = new GameView(model);
+        view = new GameView(model, snapshots, GAME_WIDTH, GAME_HEIGHT);
 
         transitionImage = LoadSave.getSpriteAtlas(LoadSave.TRANSITION_IMG);
 
@@ -105,12 +132,18 @@ public class Game extends PlayerEventListener implements Runnable {
         levelSelectState = new LevelSelectState(this);
 
         currentState = menuState;
+
+        if (DEV_MODE) {
+            System.out.println("Images: " + LoadSave.getImageCacheSize() + " cached, "
+                    + LoadSave.getImageCacheBytes() / 1024 + "KB decoded, "
+                    + LoadSave.getImageCacheHits() + " hits / " + LoadSave.getImageCacheMisses() + " misses");
+        }
     }
 
     private void loadPlayerForCurrentLevel() {
         Levels.Level currentLevel = levelManager.getCurrentLvl();
         player.setSpawnPoint(currentLevel.getSpawnX(), currentLevel.getSpawnY());
-        player.loadLvlData(currentLevel.getLevelData());
+        player.loadLvlData(currentLevel.getLevelData(), currentLevel.getCollisionMap());
         player.setCurrentLevel(currentLevel);
         player.spawnAtLevelStart();
         currentLevel.resetPlatforms();
@@ -124,9 +157,12 @@ public class Game extends PlayerEventListener implements Runnable {
     private void update() {
         if (model.isInTransition()) {
             controller.updateTransition();
-            return;
+        } else {
+            currentState.update();
         }
-        currentState.update();
+
+        // Hand the renderer a consistent copy of this tick's state
+        snapshots.publish(model);
     }
 
     @Override
@@ -166,7 +202,7 @@ public class Game extends PlayerEventListener implements Runnable {
     }
 
     public void renderGame(Graphics g) {
-        view.renderGame(g);
+        view.renderGame(g, renderAlpha);
     }
 
     private void startGameLoop() {
@@ -176,43 +212,80 @@ public class Game extends PlayerEventListener implements Runnable {
 
     @Override
     public void run() {
-        double timePerFrame = 1000000000.0 / FPS_SET;
-        double timePerUpdate = 1000000000.0 / UPS_SET;
+        long timePerFrame = 1000000000L / FPS_SET;
+        long timePerUpdate = 1000000000L / UPS_SET;
 
-        long previousTime = System.nanoTime();
+        long nextUpdate = System.nanoTime();
+        long nextFrame = nextUpdate;
 
         int frames = 0;
         int updates = 0;
+        long droppedAtLastCheck = 0;
         long lastCheck = System.currentTimeMillis();
 
-        double deltaU = 0;
-        double deltaF = 0;
-
         while (true) {
             long currentTime = System.nanoTime();
 
-            deltaU += (currentTime - previousTime) / timePerUpdate;
-            deltaF += (currentTime - previousTime) / timePerFrame;
-            previousTime = currentTime;
-            if (deltaU >= 1) {
-                update();
-                updates++;
-                deltaU--;
+            // Catch up on the updates we missed since the last pass, the policy drops any excess
+            if (currentTime - nextUpdate >= 0) {
+                long dueTicks = (currentTime - nextUpdate) / timePerUpdate + 1;
+                int ticksToRun = catchUpPolicy.ticksToRun(dueTicks);
+                for (int i = 0; i < ticksToRun; i++) {
+                    if (tickAllocations != null) {
+                        tickAllocations.begin();
+                    }
+                    update();
+                    if (tickAllocations != null) {
+                        tickAllocations.end();
+                    }
+                    updates++;
+                }
+                nextUpdate += dueTicks * timePerUpdate;
             }
-            if (deltaF >= 1) {
-                gamePanel.repaint();
+
+            if (currentTime - nextFrame >= 0) {
+                long lastUpdate = nextUpdate - timePerUpdate;
+                renderAlpha = Math.min(1f, Math.max(0f, (float) (currentTime - lastUpdate) / timePerUpdate));
+                renderSurface.present();
                 frames++;
-                deltaF--;
+                nextFrame += timePerFrame;
+                // Frames are never caught up, just skip the ones we missed
+                if (currentTime - nextFrame >= 0) {
+                    nextFrame = currentTime + timePerFrame;
+                }
             }
-            if (System.currentTimeMillis() - lastCheck >= 1000) {
+
+            if (DEV_MODE && System.currentTimeMillis() - lastCheck >= 1000) {
                 lastCheck = System.currentTimeMillis();
-                System.out.println("FPS: " + frames + "UPS: " + updates);
+                System.out.println("FPS: " + frames + " UPS: " + updates
+                        + " idle: " + loopScheduler.getIdleNanos() / 1000000 + "ms"
+                        + " spin: " + loopScheduler.getSpinNanos() / 1000000 + "ms"
+                        + " dropped: " + (catchUpPolicy.getTicksDropped() - droppedAtLastCheck)
+                        + " alloc/tick: " + tickAllocations.getBytesPerSample() + "B");
                 frames = 0;
                 updates = 0;
+                droppedAtLastCheck = catchUpPolicy.getTicksDropped();
+                loopScheduler.resetStats();
+                tickAllocations.resetStats();
             }
+
+            // Sleep until whatever is due first
+            long nextDeadline = nextUpdate - nextFrame < 0 ? nextUpdate : nextFrame;
+            loopScheduler.waitUntil(nextDeadline);
         }
     }
 
+    public void setLoopScheduler(LoopScheduler loopScheduler) {
+        this.loopScheduler = loopScheduler;
+    }
+
+    /**
+     * Number of update ticks dropped since start because the loop fell too far behind.
+     */
+    public long getTicksDropped() {
+        return catchUpPolicy.getTicksDropped();
+    }
+
 
 
     public Player getPlayer() {
@@ -307,7 +380,8 @@ public class Game extends PlayerEventListener implements Runnable {
         long runEndTimeNanos = System.nanoTime();
         double timeSeconds = (runEndTimeNanos - model.getRunStartTimeNanos()) / 1000000000.0;
         int levelIndex = levelManager.getCurrentLevelIndex();
-        LoadSave.appendToScoreFile(model.getPlayerName(), levelIndex, timeSeconds, model.getTotalDeathsForRun());
+        LeaderboardStore.getInstance().recordScore(model.getPlayerName(), levelIndex, timeSeconds,
+                model.getTotalDeathsForRun());
 
         for (GameEventListener listener : gameEventListeners) {
             listener.onLevelCompleted(levelIndex, model.getTotalDeathsForRun(), timeSeconds);
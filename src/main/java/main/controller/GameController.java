@@ -28,7 +28,7 @@ public class GameController {
         model.resetEdgeFlags();
 
         // Check player death state
-        boolean isPlayerDead = player.getHitbox().x > 1500;
+        boolean isPlayerDead = player.isDead();
         if (!model.wasPlayerDead() && isPlayerDead) {
             // Player has just died this frame
             model.setDead(true);
@@ -90,6 +90,8 @@ public class GameController {
         model.setScalingUp(true);
         model.setLevelLoaded(false);
         model.setTransitionScale(0f);
+        // Load and bake the next level while the transition plays instead of at its midpoint
+        levelManager.prepareNextLevel();
     }
 
     // Delegate methods for checking game state
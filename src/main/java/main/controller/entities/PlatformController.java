@@ -1,5 +1,7 @@
 package main.controller.entities;
 
+import java.awt.geom.Rectangle2D;
+
 import entities.Entity;
 import main.model.entities.PlatformModel;
 
@@ -7,6 +9,7 @@ import main.model.entities.PlatformModel;
 public class PlatformController {
 
     private final PlatformModel model;
+    private final Rectangle2D.Float spriteHitbox = new Rectangle2D.Float();
 
     public PlatformController(PlatformModel model) {
         this.model = model;
@@ -16,6 +19,8 @@ public class PlatformController {
      * Main update method for platform - handles movement logic
      */
     public void update() {
+        model.savePreviousPosition();
+
         // If looping, start immediately without trigger
         if (model.isLoop() && !model.isTriggered()) {
             model.setTriggered(true);
@@ -90,15 +95,15 @@ public class PlatformController {
     }
 
     /**
-     * Gets the sprite hitbox for collision detection
+     * Gets the sprite hitbox for collision detection.
+     * The same rectangle is reused on every call, copy it if it needs to outlive the next call.
      */
-    public java.awt.geom.Rectangle2D.Float getSpriteHitbox() {
-        float spriteAreaW = model.getHitbox().width * 2 / 3;
-        float spriteAreaH = model.getHitbox().height * 2 / 3;
-        float spriteAreaX = model.getHitbox().x + model.getHitbox().width / 6;
-        float spriteAreaY = model.getHitbox().y + model.getHitbox().height / 6;
-
-        return new java.awt.geom.Rectangle2D.Float(spriteAreaX, spriteAreaY, spriteAreaW, spriteAreaH);
+    public Rectangle2D.Float getSpriteHitbox() {
+        // Sprite area is centered in hitbox (hitbox is 1.5x sprite area)
+        // Sprite = hitbox / 1.5 = hitbox * 2/3, offset = hitbox / 6
+        Rectangle2D.Float hb = model.getHitbox();
+        spriteHitbox.setRect(hb.x + hb.width / 6, hb.y + hb.height / 6, hb.width * 2 / 3, hb.height * 2 / 3);
+        return spriteHitbox;
     }
 
     // Delegate methods for external access
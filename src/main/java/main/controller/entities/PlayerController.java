@@ -3,7 +3,6 @@ package main.controller.entities;
 import java.awt.image.BufferedImage;
 
 import Levels.Level;
-import entities.Entity;
 import main.model.entities.PlayerModel;
 import main.observerEvents.PlayerEventListener;
 import static utilz.Constants.PlayerConstants.IDLE_LEFT;
@@ -21,6 +20,7 @@ import static utilz.HelpMethods.isEntityOnFloor;
 import static utilz.HelpMethods.isOnLevelEnd;
 
 public class PlayerController {
+    private static final float DEAD_PARK_POSITION = -100000f;
 
     private final PlayerModel model;
     private Level currentLevel;
@@ -42,6 +42,8 @@ public class PlayerController {
      * Main update method for player - handles all player logic
      */
     public void update() {
+        model.savePreviousPosition();
+
         if (model.isDead()) {
             if (System.currentTimeMillis() - model.getDeathTime() >= model.getRespawnDelayMs()) {
                 respawn();
@@ -49,18 +51,9 @@ public class PlayerController {
             return;
         }
 
-        // Create a temporary player-like entity for collision checking
-        Entity tempPlayer = new Entity(model.getHitbox().x, model.getHitbox().y,
-                                     (int) model.getHitbox().width, (int) model.getHitbox().height) {
-            @Override
-            public java.awt.geom.Rectangle2D.Float getHitbox() {
-                return model.getHitbox();
-            }
-        };
-
         if (isEntityDead(model.getHitbox(), model.getLvlData())
-                || (currentLevel != null && currentLevel.checkSpikeCollision(tempPlayer))
-                || (currentLevel != null && currentLevel.checkTriggerSpikeCollision(tempPlayer))) {
+                || (currentLevel != null && currentLevel.checkSpikeCollision(model.getHitbox()))
+                || (currentLevel != null && currentLevel.checkTriggerSpikeCollision(model.getHitbox()))) {
             die();
             return;
         }
@@ -92,8 +85,8 @@ public class PlayerController {
                                            model.getHitbox().y - model.getYDrawOffset(), deathSprite);
         }
 
-        model.getHitbox().x = 2000;
-        model.getHitbox().y = 2000;
+        // Park the hitbox far outside any level so nothing collides with or triggers on it while dead
+        model.setHitboxPosition(DEAD_PARK_POSITION, DEAD_PARK_POSITION);
         resetInAir();
         resetDirBooleans();
     }
@@ -110,7 +103,7 @@ public class PlayerController {
         model.setMoving(false);
         model.setJump(false);
 
-        model.setInAir(!isEntityOnFloor(model.getHitbox(), model.getLvlData()));
+        model.setInAir(!isEntityOnFloor(model.getHitbox(), model.getCollisionMap()));
     }
 
     /**
@@ -123,7 +116,7 @@ public class PlayerController {
 
         // Always check if player is on ground or solid platform
         if (!model.isInAir()) {
-            if (!isEntityOnFloor(model.getHitbox(), model.getLvlData()) &&
+            if (!isEntityOnFloor(model.getHitbox(), model.getCollisionMap()) &&
                 (currentLevel == null || !currentLevel.isOnSolidPlatform(model.getHitbox()))) {
                 model.setInAir(true);
             }
@@ -143,7 +136,7 @@ public class PlayerController {
 
         if (model.isInAir()) {
             if (canMoveHere(model.getHitbox().x, model.getHitbox().y + model.getAirSpeed(),
-                           model.getHitbox().width, model.getHitbox().height, model.getLvlData())) {
+                           model.getHitbox().width, model.getHitbox().height, model.getCollisionMap())) {
                 model.getHitbox().y += model.getAirSpeed();
                 model.setAirSpeed(model.getAirSpeed() + model.getGravity());
                 updateXPos(xSpeed);
@@ -177,7 +170,7 @@ public class PlayerController {
      */
     private void updateXPos(float xSpeed) {
         if (canMoveHere(model.getHitbox().x + xSpeed, model.getHitbox().y,
-                       model.getHitbox().width, model.getHitbox().height, model.getLvlData())) {
+                       model.getHitbox().width, model.getHitbox().height, model.getCollisionMap())) {
             model.getHitbox().x += xSpeed;
         } else {
             model.getHitbox().x = getEntityXPosNextToWall(model.getHitbox(), xSpeed);
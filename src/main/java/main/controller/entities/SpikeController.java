@@ -16,6 +16,8 @@ public class SpikeController {
      * Main update method for spike - handles movement logic
      */
     public void update() {
+        model.savePreviousPosition();
+
         if (!model.isTriggered() || model.isReachedTarget()) {
             return;
         }
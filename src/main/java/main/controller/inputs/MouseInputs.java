@@ -4,14 +4,14 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 
-import main.view.GamePanel;
+import main.view.RenderSurface;
 import main.controller.Game;
 
 public class MouseInputs implements MouseListener, MouseMotionListener {
 
-    private GamePanel panel;
+    private RenderSurface panel;
 
-    public void setGamePanel(GamePanel panel) {
+    public void setRenderSurface(RenderSurface panel) {
         this.panel = panel;
     }
 
@@ -0,0 +1,66 @@
+package main.controller.loop;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures how many bytes the game thread allocates while running ticks, using the
+ * per-thread allocation counter of the HotSpot ThreadMXBean. A steady state tick should allocate nothing,
+ * so anything above zero here means garbage that will eventually cost a GC pause.
+ * On JVMs without the counter the probe does nothing and reports zero.
+ */
+public class AllocationProbe {
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    private long startBytes;
+    private long allocatedBytes;
+    private long samples;
+
+    public AllocationProbe() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()) {
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+            threadBean = sunBean;
+        } else {
+            threadBean = null;
+        }
+    }
+
+    public boolean isSupported() {
+        return threadBean != null;
+    }
+
+    /**
+     * Starts measuring. Must be called from the thread that will run the measured code.
+     */
+    public void begin() {
+        if (threadBean != null) {
+            startBytes = threadBean.getCurrentThreadAllocatedBytes();
+        }
+    }
+
+    /**
+     * Stops measuring and adds the bytes allocated since {@link #begin()} to the totals.
+     */
+    public void end() {
+        if (threadBean != null) {
+            allocatedBytes += threadBean.getCurrentThreadAllocatedBytes() - startBytes;
+            samples++;
+        }
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Average bytes allocated per measured section since the last reset.
+     */
+    public long getBytesPerSample() {
+        return samples == 0 ? 0 : allocatedBytes / samples;
+    }
+
+    public void resetStats() {
+        allocatedBytes = 0;
+        samples = 0;
+    }
+}
@@ -0,0 +1,47 @@
+package main.controller.loop;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides how many overdue updates the game loop may run in a single pass.
+ * Anything above the limit is dropped instead of being run later, so a long hitch
+ * (GC pause, slow repaint) can't snowball into a spiral of death.
+ */
+public class CatchUpPolicy {
+    public static final int DEFAULT_MAX_UPDATES_PER_LOOP = 5;
+
+    private final int maxUpdatesPerLoop;
+    private final AtomicLong ticksDropped = new AtomicLong();
+
+    public CatchUpPolicy() {
+        this(Integer.getInteger("game.maxCatchUp", DEFAULT_MAX_UPDATES_PER_LOOP));
+    }
+
+    public CatchUpPolicy(int maxUpdatesPerLoop) {
+        this.maxUpdatesPerLoop = Math.max(1, maxUpdatesPerLoop);
+    }
+
+    /**
+     * Returns how many of the due ticks should be run now. The remaining ticks are counted as dropped.
+     *
+     * @param dueTicks Number of updates that are due since the last pass
+     */
+    public int ticksToRun(long dueTicks) {
+        if (dueTicks <= maxUpdatesPerLoop) {
+            return (int) Math.max(0, dueTicks);
+        }
+        ticksDropped.addAndGet(dueTicks - maxUpdatesPerLoop);
+        return maxUpdatesPerLoop;
+    }
+
+    public int getMaxUpdatesPerLoop() {
+        return maxUpdatesPerLoop;
+    }
+
+    /**
+     * Total number of ticks dropped since the game started.
+     */
+    public long getTicksDropped() {
+        return ticksDropped.get();
+    }
+}
@@ -0,0 +1,30 @@
+package main.controller.loop;
+
+/**
+ * Strategy used by the game loop to wait until the next update or frame is due.
+ * Implementations keep track of how much of the waiting was handed back to the OS (idle)
+ * and how much was spent busy-waiting (spin), so the loop can report it.
+ */
+public interface LoopScheduler {
+
+    /**
+     * Blocks the calling thread until {@link System#nanoTime()} has reached the given deadline.
+     * Returns immediately if the deadline has already passed.
+     */
+    void waitUntil(long deadlineNanos);
+
+    /**
+     * Total time spent parked/sleeping since the last reset.
+     */
+    long getIdleNanos();
+
+    /**
+     * Total time spent spinning since the last reset.
+     */
+    long getSpinNanos();
+
+    /**
+     * Clears the idle and spin counters.
+     */
+    void resetStats();
+}
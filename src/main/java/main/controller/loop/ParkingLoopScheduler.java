@@ -0,0 +1,61 @@
+package main.controller.loop;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Scheduler that parks the thread for most of the wait and only spins for the last
+ * part of it, where the OS timer is too coarse to wake us up on time.
+ */
+public class ParkingLoopScheduler implements LoopScheduler {
+    // Spin for the last 0.5 ms, parkNanos usually oversleeps by less than that
+    public static final long DEFAULT_SPIN_THRESHOLD_NANOS = 500_000L;
+
+    private final long spinThresholdNanos;
+    private long idleNanos;
+    private long spinNanos;
+
+    public ParkingLoopScheduler() {
+        this(DEFAULT_SPIN_THRESHOLD_NANOS);
+    }
+
+    public ParkingLoopScheduler(long spinThresholdNanos) {
+        this.spinThresholdNanos = spinThresholdNanos;
+    }
+
+    @Override
+    public void waitUntil(long deadlineNanos) {
+        long now = System.nanoTime();
+
+        // Park while we are comfortably far away from the deadline
+        while (deadlineNanos - now > spinThresholdNanos) {
+            LockSupport.parkNanos(deadlineNanos - now - spinThresholdNanos);
+            long afterPark = System.nanoTime();
+            idleNanos += afterPark - now;
+            now = afterPark;
+        }
+
+        // Spin the rest of the way for an accurate wake-up
+        long spinStart = now;
+        while (deadlineNanos - now > 0) {
+            Thread.onSpinWait();
+            now = System.nanoTime();
+        }
+        spinNanos += now - spinStart;
+    }
+
+    @Override
+    public long getIdleNanos() {
+        return idleNanos;
+    }
+
+    @Override
+    public long getSpinNanos() {
+        return spinNanos;
+    }
+
+    @Override
+    public void resetStats() {
+        idleNanos = 0;
+        spinNanos = 0;
+    }
+}
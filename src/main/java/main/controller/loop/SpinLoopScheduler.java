@@ -0,0 +1,35 @@
+package main.controller.loop;
+
+/**
+ * Scheduler that busy-waits for the whole wait, which is how the game loop used to behave.
+ * Gives the most accurate timing but keeps one core at 100%.
+ */
+public class SpinLoopScheduler implements LoopScheduler {
+    private long spinNanos;
+
+    @Override
+    public void waitUntil(long deadlineNanos) {
+        long start = System.nanoTime();
+        long now = start;
+        while (deadlineNanos - now > 0) {
+            Thread.onSpinWait();
+            now = System.nanoTime();
+        }
+        spinNanos += now - start;
+    }
+
+    @Override
+    public long getIdleNanos() {
+        return 0;
+    }
+
+    @Override
+    public long getSpinNanos() {
+        return spinNanos;
+    }
+
+    @Override
+    public void resetStats() {
+        spinNanos = 0;
+    }
+}
@@ -5,8 +5,8 @@ import java.util.List;
 
 import main.model.Levels.LevelManager;
 import main.model.entities.Player;
+import main.model.leaderboard.LeaderboardStore;
 import main.model.observerEvents.GameObserver;
-import utilities.LoadSave;
 
 public class GameModel {
     private static final float TRANSITION_SPEED = 0.015f;
@@ -98,7 +98,7 @@ public class GameModel {
         player.update();
         levelManager.update();
 
-        boolean isPlayerDead = player.getHitbox().x > 1500;
+        boolean isPlayerDead = player.isDead();
 
         if (!wasPlayerDead && isPlayerDead) {
             // Player just died
@@ -148,6 +148,7 @@ public class GameModel {
         scalingUp = true;
         isLevelLoaded = false;
         transitionScale = 0f;
+        levelManager.prepareNextLevel();
     }
 
     public void resetTransition() {
@@ -196,7 +197,7 @@ public class GameModel {
     private void reloadPlayerForCurrentLevel() {
         main.model.Levels.Level currentLevel = levelManager.getCurrentLvl();
         player.setSpawnPoint(currentLevel.getSpawnX(), currentLevel.getSpawnY());
-        player.loadLvlData(currentLevel.getLevelData());
+        player.loadLvlData(currentLevel.getLevelData(), currentLevel.getCollisionMap());
         player.setCurrentLevel(currentLevel);
         player.spawnAtLevelStart();
         currentLevel.resetPlatforms();
@@ -208,7 +209,7 @@ public class GameModel {
         long runEndTimeNanos = System.nanoTime();
         double timeSeconds = (runEndTimeNanos - startTime) / 1_000_000_000.0;
         int levelIndex = levelManager.getCurrentLevelIndex();
-        LoadSave.appendToScoreFile(playerName, levelIndex, timeSeconds, totalDeaths);
+        LeaderboardStore.getInstance().recordScore(playerName, levelIndex, timeSeconds, totalDeaths);
     }
 
     //Getters & Setters ---
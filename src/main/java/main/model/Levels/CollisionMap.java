@@ -0,0 +1,64 @@
+package main.model.Levels;
+
+import main.controller.Game;
+import utilities.HelpMethods;
+
+/**
+ * Precomputed solidity of every tile in a level, stored as a flat boolean array so the physics can
+ * look tiles up without touching the tile ids or the solid tile table.
+ * Built when the level loads and kept in sync by {@link Level} whenever it changes a tile.
+ */
+public class CollisionMap {
+    private final int widthInTiles;
+    private final int heightInTiles;
+    private final float pixelWidth;
+    private final float pixelHeight;
+    private final boolean[] solid;
+
+    public CollisionMap(TileLayer lvlData) {
+        heightInTiles = lvlData.getHeight();
+        widthInTiles = lvlData.getWidth();
+        pixelWidth = widthInTiles * Game.TILES_SIZE;
+        pixelHeight = heightInTiles * Game.TILES_SIZE;
+        solid = new boolean[widthInTiles * heightInTiles];
+        for (int i = 0; i < solid.length; i++) {
+            solid[i] = HelpMethods.isSolidTile(lvlData.get(i));
+        }
+    }
+
+    /**
+     * Updates one tile after the level data changed.
+     *
+     * @param x     tile column
+     * @param y     tile row
+     * @param value the new tile id
+     */
+    public void setTile(int x, int y, int value) {
+        solid[y * widthInTiles + x] = HelpMethods.isSolidTile(value);
+    }
+
+    /**
+     * Checks the tile under a pixel position. Everything outside the level counts as solid.
+     */
+    public boolean isSolid(float x, float y) {
+        if (x < 0 || x >= pixelWidth || y < 0 || y >= pixelHeight) {
+            return true;
+        }
+        return solid[(int) (y / Game.TILES_SIZE) * widthInTiles + (int) (x / Game.TILES_SIZE)];
+    }
+
+    public boolean isSolidTile(int x, int y) {
+        if (x < 0 || x >= widthInTiles || y < 0 || y >= heightInTiles) {
+            return true;
+        }
+        return solid[y * widthInTiles + x];
+    }
+
+    public int getWidthInTiles() {
+        return widthInTiles;
+    }
+
+    public int getHeightInTiles() {
+        return heightInTiles;
+    }
+}
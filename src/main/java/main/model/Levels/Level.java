@@ -1,23 +1,39 @@
 package main.model.Levels;
 
 import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
+import main.model.RenderSnapshot;
 import main.model.entities.DeathSprite;
-import main.model.entities.Entity;
+import main.model.entities.Player;
 import main.model.entities.MovingPlatform;
 import main.model.entities.SpawnPlatform;
+import main.model.entities.SpikeModel;
 import main.model.entities.Spike;
 import main.model.entities.TriggerPlatform;
 import main.model.entities.TriggerSpike;
 import main.controller.Game;
 
 public class Level {
-    private int[][] lvlData;
-    private int[][] lvlObstacleData;
-    private int[][] lvlObjData;
+    // Broadphase cell size, a few tiles so the player's neighbourhood is only a handful of cells
+    private static final float GRID_CELL_SIZE = Game.TILES_SIZE * 4;
+    // Platforms and trigger spikes further than this from the player are not updated. A screen in every
+    // direction covers everything the camera can show, so a level that fits on one screen updates everything.
+    // On larger levels an entity out of range pauses where it is, also halfway through moving to its target or
+    // back, and carries on from there once the player comes close again
+    private static final float ACTIVE_RANGE_X = Game.GAME_WIDTH;
+    private static final float ACTIVE_RANGE_Y = Game.GAME_HEIGHT;
+    // Sprites are drawn a little outside their hitboxes, pad the visibility check by this much
+    private static final float DRAW_MARGIN = Game.TILES_SIZE;
+
+    private TileLayer lvlData;
+    private TileLayer lvlObstacleData;
+    private TileLayer lvlObjData;
     private float spawnX;
     private float spawnY;
     private int deathScore;
@@ -27,13 +43,39 @@ public class Level {
     private List<TriggerSpike> triggerSpikes;
     private SpawnPlatform spawnPlatform;
 
-    // Store which tile positions are trigger platforms (so we don't draw them as tiles)
-    private List<int[]> triggerPlatformPositions;
+    // Where each obstacle tile id is, the entity factories below read this instead of scanning the grid
+    private TileIndex obstacleIndex;
+    // Tile positions that are trigger platforms (so we don't draw them as tiles), bit y * width + x
+    private BitSet triggerPlatformPositions;
 
     // Store death sprites that fall to the ground
     private List<DeathSprite> deathSprites;
 
-    public Level(int[][] lvlData, int[][] lvlObstacleData, int[][] lvlObjData, float spawnX, float spawnY) {
+    // Bumped whenever lvlData changes so baked tile layers know to redraw
+    private int tileVersion;
+    private CollisionMap collisionMap;
+
+    // Broadphase grids, ids are indexes into the matching entity lists
+    private SpatialGrid spikeGrid;
+    private SpatialGrid triggerSpikeGrid;
+    private SpatialGrid platformGrid;
+    // Where the player last was while alive. The hitbox is parked far outside the level while dead, the area
+    // around this point keeps running instead, like the camera keeps showing it
+    private float activeCenterX;
+    private float activeCenterY;
+
+    // Moving entities as they were right after loading, resets put this back
+    private LevelState initialState;
+
+    /**
+     * @throws IllegalArgumentException if the three layers aren't the same size, the obstacle and object
+     *                                  positions would not line up with the tiles
+     */
+    public Level(TileLayer lvlData, TileLayer lvlObstacleData, TileLayer lvlObjData, float spawnX, float spawnY) {
+        if (!lvlData.isSameSize(lvlObstacleData) || !lvlData.isSameSize(lvlObjData)) {
+            throw new IllegalArgumentException("Level layers differ in size: tiles " + lvlData + ", obstacles "
+                    + lvlObstacleData + ", objects " + lvlObjData);
+        }
         this.lvlData = lvlData;
         this.lvlObstacleData = lvlObstacleData;
         this.lvlObjData = lvlObjData;
@@ -43,8 +85,16 @@ public class Level {
         this.triggerPlatforms = new ArrayList<>();
         this.spikes = new ArrayList<>();
         this.triggerSpikes = new ArrayList<>();
-        this.triggerPlatformPositions = new ArrayList<>();
+        this.obstacleIndex = new TileIndex(lvlObstacleData);
+        this.triggerPlatformPositions = new BitSet();
         this.deathSprites = new ArrayList<>();
+        this.collisionMap = new CollisionMap(lvlData);
+
+        float width = lvlData.getWidth() * Game.TILES_SIZE;
+        float height = lvlData.getHeight() * Game.TILES_SIZE;
+        this.spikeGrid = new SpatialGrid(width, height, GRID_CELL_SIZE);
+        this.triggerSpikeGrid = new SpatialGrid(width, height, GRID_CELL_SIZE);
+        this.platformGrid = new SpatialGrid(width, height, GRID_CELL_SIZE);
     }
 
     /**
@@ -61,39 +111,39 @@ public class Level {
     public void createTriggerPlatformsFromTile(int tileId, int spriteId, float targetOffsetX,
                                                float targetOffsetY, float speed, BufferedImage[] sprites,
                                                boolean shouldReturn, boolean solid) {
-        for (int y = 0; y < lvlObstacleData.length; y++) {
-            for (int x = 0; x < lvlObstacleData[y].length; x++) {
-                if (lvlObstacleData[y][x] == tileId) {
-                    float posX = x * Game.TILES_SIZE;
-                    float posY = y * Game.TILES_SIZE;
-
-                    TriggerPlatform platform = new TriggerPlatform(
-                            posX, posY,
-                            posX + targetOffsetX, posY + targetOffsetY,
-                            Game.TILES_SIZE, Game.TILES_SIZE,
-                            speed,
-                            sprites[spriteId]
-                            , shouldReturn);
-                    platform.setSolid(solid);
-                    triggerPlatforms.add(platform);
-
-                    // Mark this position so we don't draw the tile
-                    triggerPlatformPositions.add(new int[]{x, y});
-
-                    // Replace tile with transparent/empty tile in level data
-                    lvlData[y][x] = 80; // 80 = transparent tile
-                }
-            }
+        for (int n = 0; n < obstacleIndex.count(tileId); n++) {
+            int x = obstacleIndex.getX(tileId, n);
+            int y = obstacleIndex.getY(tileId, n);
+            float posX = x * Game.TILES_SIZE;
+            float posY = y * Game.TILES_SIZE;
+
+            TriggerPlatform platform = new TriggerPlatform(
+                    posX, posY,
+                    posX + targetOffsetX, posY + targetOffsetY,
+                    Game.TILES_SIZE, Game.TILES_SIZE,
+                    speed,
+                    sprites[spriteId]
+                    , shouldReturn);
+            platform.setSolid(solid);
+            addTriggerPlatform(platform);
+
+            // Mark this position so we don't draw the tile
+            markTriggerPlatformPosition(x, y);
+
+            // Replace tile with transparent/empty tile in level data
+            clearTile(x, y);
         }
     }
 
     public boolean isTriggerPlatformPosition(int x, int y) {
-        for (int[] pos : triggerPlatformPositions) {
-            if (pos[0] == x && pos[1] == y) {
-                return true;
-            }
+        if (x < 0 || x >= getWidthInTiles() || y < 0 || y >= getHeightInTiles()) {
+            return false;
         }
-        return false;
+        return triggerPlatformPositions.get(y * getWidthInTiles() + x);
+    }
+
+    private void markTriggerPlatformPosition(int x, int y) {
+        triggerPlatformPositions.set(y * getWidthInTiles() + x);
     }
 
     /**
@@ -103,31 +153,23 @@ public class Level {
             int tileId, float targetOffsetX, float targetOffsetY, float speed,
             BufferedImage[] sprites, boolean shouldReturn, boolean solid, boolean shouldLoop) {
 
-        // Find all tiles with this ID
-        List<int[]> positions = new ArrayList<>();
-        for (int y = 0; y < lvlObstacleData.length; y++) {
-            for (int x = 0; x < lvlObstacleData[y].length; x++) {
-                if (lvlObstacleData[y][x] == tileId) {
-                    positions.add(new int[]{x, y});
-                }
-            }
-        }
-
-        if (positions.isEmpty()) {
+        // All tiles with this ID
+        int count = obstacleIndex.count(tileId);
+        if (count == 0) {
             return;
         }
 
         // Find bounding box of all tiles
-        int minX = positions.get(0)[0];
-        int maxX = positions.get(0)[0];
-        int minY = positions.get(0)[1];
-        int maxY = positions.get(0)[1];
-
-        for (int[] pos : positions) {
-            minX = Math.min(minX, pos[0]);
-            maxX = Math.max(maxX, pos[0]);
-            minY = Math.min(minY, pos[1]);
-            maxY = Math.max(maxY, pos[1]);
+        int minX = obstacleIndex.getX(tileId, 0);
+        int maxX = minX;
+        int minY = obstacleIndex.getY(tileId, 0);
+        int maxY = minY;
+
+        for (int n = 1; n < count; n++) {
+            minX = Math.min(minX, obstacleIndex.getX(tileId, n));
+            maxX = Math.max(maxX, obstacleIndex.getX(tileId, n));
+            minY = Math.min(minY, obstacleIndex.getY(tileId, n));
+            maxY = Math.max(maxY, obstacleIndex.getY(tileId, n));
         }
 
         // Use top-left of bounding box as main position
@@ -137,8 +179,9 @@ public class Level {
         int height = (maxY - minY + 1) * Game.TILES_SIZE;
 
         // Get sprite from lvlData at first tile position
-        int[] first = positions.get(0);
-        int firstSpriteId = lvlData[first[1]][first[0]];
+        int firstX = obstacleIndex.getX(tileId, 0);
+        int firstY = obstacleIndex.getY(tileId, 0);
+        int firstSpriteId = lvlData.get(firstX, firstY);
 
         TriggerPlatform platform = new TriggerPlatform(
                 posX, posY,
@@ -154,7 +197,7 @@ public class Level {
 
         // Set first tile position relative to bounding box
         platform.setFirstTileOffset((
-                first[0] - minX) * Game.TILES_SIZE, (first[1] - minY)
+                firstX - minX) * Game.TILES_SIZE, (firstY - minY)
                 * Game.TILES_SIZE);
 
         // Enlarge hitbox with offset (1.5x for smaller trigger area)
@@ -164,32 +207,44 @@ public class Level {
         );
 
         // Add remaining tiles as additional tiles (relative to bounding box top-left), using lvlData for sprite
-        for (int i = 1; i < positions.size(); i++) {
-            int[] pos = positions.get(i);
-            float relX = (pos[0] - minX) * Game.TILES_SIZE;
-            float relY = (pos[1] - minY) * Game.TILES_SIZE;
-            int tileSpriteId = lvlData[pos[1]][pos[0]];
+        for (int n = 1; n < count; n++) {
+            int x = obstacleIndex.getX(tileId, n);
+            int y = obstacleIndex.getY(tileId, n);
+            float relX = (x - minX) * Game.TILES_SIZE;
+            float relY = (y - minY) * Game.TILES_SIZE;
+            int tileSpriteId = lvlData.get(x, y);
             platform.addTile(relX, relY, sprites[tileSpriteId]);
         }
 
-        triggerPlatforms.add(platform);
+        addTriggerPlatform(platform);
 
         // Mark all positions and replace tiles
-        for (int[] pos : positions) {
-            triggerPlatformPositions.add(pos);
-            lvlData[pos[1]][pos[0]] = 80;
+        for (int n = 0; n < count; n++) {
+            int x = obstacleIndex.getX(tileId, n);
+            int y = obstacleIndex.getY(tileId, n);
+            markTriggerPlatformPosition(x, y);
+            clearTile(x, y);
         }
     }
 
+    private void clearTile(int x, int y) {
+        lvlData.set(x, y, 80); // 80 = transparent tile
+        collisionMap.setTile(x, y, 80);
+        tileVersion++;
+    }
+
     /**
      * Check if player is standing on any solid platform
      */
     public boolean isOnSolidPlatform(java.awt.geom.Rectangle2D.Float playerHitbox) {
-        for (TriggerPlatform platform : triggerPlatforms) {
+        // Platform tops within 5px above the player's feet
+        float playerBottom = playerHitbox.y + playerHitbox.height;
+        int candidates = platformGrid.query(playerHitbox.x, playerBottom - 5, playerHitbox.width, 5);
+        for (int c = 0; c < candidates; c++) {
+            TriggerPlatform platform = triggerPlatforms.get(platformGrid.getResult(c));
             if (platform.isSolid()) {
                 java.awt.geom.Rectangle2D.Float platHitbox = platform.getSpriteHitbox();
                 // Check if player's bottom is on platform's top
-                float playerBottom = playerHitbox.y + playerHitbox.height;
                 float platformTop = platHitbox.y;
 
                 boolean verticallyAligned = playerBottom >= platformTop && playerBottom <= platformTop + 5;
@@ -209,10 +264,14 @@ public class Level {
      * Get the Y position of the platform the player is landing on (only when falling through it)
      */
     public float getSolidPlatformY(java.awt.geom.Rectangle2D.Float playerHitbox, float airSpeed) {
-        for (TriggerPlatform platform : triggerPlatforms) {
+        // Platform tops the player's feet may have passed this tick
+        float reach = Math.abs(airSpeed) + 5;
+        float playerBottom = playerHitbox.y + playerHitbox.height;
+        int candidates = platformGrid.query(playerHitbox.x, playerBottom - reach, playerHitbox.width, reach);
+        for (int c = 0; c < candidates; c++) {
+            TriggerPlatform platform = triggerPlatforms.get(platformGrid.getResult(c));
             if (platform.isSolid()) {
                 java.awt.geom.Rectangle2D.Float platHitbox = platform.getSpriteHitbox();
-                float playerBottom = playerHitbox.y + playerHitbox.height;
                 float platformTop = platHitbox.y;
 
                 // Only land if player bottom crossed platform top this frame
@@ -235,6 +294,7 @@ public class Level {
 
     public void addTriggerPlatform(TriggerPlatform platform) {
         triggerPlatforms.add(platform);
+        updatePlatformInGrid(triggerPlatforms.size() - 1);
     }
 
     public void setAudioControllerForPlatforms(audio.controller.AudioController audioController) {
@@ -243,11 +303,17 @@ public class Level {
         }
     }
 
-    public void updatePlatforms(Entity player) {
-        for (MovingPlatform platform : movingPlatforms) {
+    // The tick path loops by index, a for-each would allocate an iterator on every call
+    public void updatePlatforms(Player player) {
+        for (int i = 0; i < movingPlatforms.size(); i++) {
+            MovingPlatform platform = movingPlatforms.get(i);
             platform.update();
         }
-        for (TriggerPlatform platform : triggerPlatforms) {
+        // Only the platforms around the player are updated, the rest of a large level waits until it gets close
+        int candidates = queryActiveRange(platformGrid, player);
+        for (int c = 0; c < candidates; c++) {
+            int i = platformGrid.getResult(c);
+            TriggerPlatform platform = triggerPlatforms.get(i);
             // Check if player touches the platform
             if (!platform.isTriggered() && platform.checkPlayerCollision(player)) {
                 platform.trigger();
@@ -260,6 +326,9 @@ public class Level {
 
             float dx = platform.getHitbox().x - oldX;
             float dy = platform.getHitbox().y - oldY;
+            if (dx != 0 || dy != 0) {
+                updatePlatformInGrid(i);
+            }
 
             if ((dx != 0 || dy != 0) && platform.isSolid()) {
                 java.awt.geom.Rectangle2D.Float platHitbox = platform.getSpriteHitbox();
@@ -283,7 +352,7 @@ public class Level {
                             player.getHitbox().y + dy,
                             player.getHitbox().width,
                             player.getHitbox().height,
-                            lvlData)) {
+                            collisionMap)) {
 
                         player.getHitbox().x += dx;
                         player.getHitbox().y += dy;
@@ -293,15 +362,26 @@ public class Level {
         }
     }
 
-    public void drawPlatforms(Graphics g) {
+    public void drawPlatforms(Graphics g, RenderSnapshot snapshot, float alpha, Rectangle viewport) {
         for (MovingPlatform platform : movingPlatforms) {
             platform.render(g);
         }
-        for (TriggerPlatform platform : triggerPlatforms) {
-            platform.render(g);
+        int count = Math.min(snapshot.getPlatformCount(), triggerPlatforms.size());
+        for (int i = 0; i < count; i++) {
+            float x = snapshot.getPlatformX(i, alpha);
+            float y = snapshot.getPlatformY(i, alpha);
+            Rectangle2D.Float hitbox = triggerPlatforms.get(i).getHitbox();
+            if (isVisible(viewport, x, y, hitbox.width, hitbox.height)) {
+                triggerPlatforms.get(i).render(g, x, y);
+            }
         }
     }
 
+    private static boolean isVisible(Rectangle viewport, float x, float y, float width, float height) {
+        return viewport.intersects(x - DRAW_MARGIN, y - DRAW_MARGIN, width + DRAW_MARGIN * 2,
+                height + DRAW_MARGIN * 2);
+    }
+
     public List<MovingPlatform> getMovingPlatforms() {
         return movingPlatforms;
     }
@@ -310,20 +390,113 @@ public class Level {
         return triggerPlatforms;
     }
 
+    public List<TriggerSpike> getTriggerSpikes() {
+        return triggerSpikes;
+    }
+
     public void resetPlatforms() {
-        for (TriggerPlatform platform : triggerPlatforms) {
-            platform.reset();
+        if (initialState == null) {
+            return;
         }
+        restoreTriggerPlatforms(initialState, System.currentTimeMillis());
         resetTriggerSpikes();
     }
 
+    /**
+     * Remembers the current state of the moving entities as the one resets go back to.
+     * Called once the level is fully built, before it is played.
+     */
+    public void saveInitialState() {
+        initialState = captureState();
+    }
+
+    /**
+     * Copies the state of every moving entity in the level, for example to checkpoint part way through it.
+     */
+    public LevelState captureState() {
+        LevelState state = new LevelState(triggerPlatforms.size(), triggerSpikes.size(), movingPlatforms.size(),
+                spawnPlatform != null);
+        captureState(state);
+        return state;
+    }
+
+    /**
+     * Same as {@link #captureState()} but reuses a state taken from this level earlier.
+     */
+    public void captureState(LevelState state) {
+        checkLayout(state);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < triggerPlatforms.size(); i++) {
+            triggerPlatforms.get(i).getModel().saveState(state, state.platformSlot(i), now);
+        }
+        for (int i = 0; i < triggerSpikes.size(); i++) {
+            triggerSpikes.get(i).getModel().saveState(state, state.spikeSlot(i), now);
+        }
+        for (int i = 0; i < movingPlatforms.size(); i++) {
+            movingPlatforms.get(i).saveState(state, state.movingPlatformSlot(i));
+        }
+        if (spawnPlatform != null) {
+            spawnPlatform.saveState(state, state.spawnPlatformSlot(), now);
+        }
+    }
+
+    /**
+     * Puts every moving entity back to how it was in a state taken from this level.
+     */
+    public void restoreState(LevelState state) {
+        checkLayout(state);
+        long now = System.currentTimeMillis();
+        restoreTriggerPlatforms(state, now);
+        restoreTriggerSpikes(state, now);
+        for (int i = 0; i < movingPlatforms.size(); i++) {
+            movingPlatforms.get(i).restoreState(state, state.movingPlatformSlot(i));
+        }
+        if (spawnPlatform != null) {
+            spawnPlatform.restoreState(state, state.spawnPlatformSlot(), now);
+        }
+    }
+
+    private void checkLayout(LevelState state) {
+        if (state.getPlatformCount() != triggerPlatforms.size() || state.getSpikeCount() != triggerSpikes.size()
+                || state.getMovingPlatformCount() != movingPlatforms.size()
+                || state.hasSpawnPlatform() != (spawnPlatform != null)) {
+            throw new IllegalArgumentException("State was taken from a different level");
+        }
+    }
+
+    // The grids have to follow the entities they moved
+    private void restoreTriggerPlatforms(LevelState state, long now) {
+        for (int i = 0; i < triggerPlatforms.size(); i++) {
+            triggerPlatforms.get(i).getModel().restoreState(state, state.platformSlot(i), now);
+            updatePlatformInGrid(i);
+        }
+    }
+
+    private void restoreTriggerSpikes(LevelState state, long now) {
+        for (int i = 0; i < triggerSpikes.size(); i++) {
+            triggerSpikes.get(i).getModel().restoreState(state, state.spikeSlot(i), now);
+            updateTriggerSpikeInGrid(i);
+        }
+    }
+
+    private void updatePlatformInGrid(int index) {
+        Rectangle2D.Float hb = triggerPlatforms.get(index).getHitbox();
+        platformGrid.update(index, hb.x, hb.y, hb.width, hb.height);
+    }
+
+    private void updateTriggerSpikeInGrid(int index) {
+        SpikeModel model = triggerSpikes.get(index).getModel();
+        Rectangle2D.Float hb = model.getHitbox();
+        triggerSpikeGrid.update(index, hb.x, hb.y, hb.width, hb.height);
+    }
+
     public void recordDeathPosition(float x, float y, BufferedImage deathSprite) {
         if (deathSprite == null) {
             return;
         }
 
         // Find the ground Y position - use player's Y if on ground, otherwise find ground below
-        float groundY = utilities.HelpMethods.findGroundY(x, y, Game.TILES_SIZE, lvlData);
+        float groundY = utilities.HelpMethods.findGroundY(x, y, Game.TILES_SIZE, collisionMap);
 
         // Only place death sprite if there's valid ground (not -1)
         if (groundY >= 0) {
@@ -336,38 +509,51 @@ public class Level {
         deathSprites.clear();
     }
 
-    public void drawDeathSprites(Graphics g) {
-        for (DeathSprite sprite : deathSprites) {
-            sprite.render(g);
+    public void drawDeathSprites(Graphics g, RenderSnapshot snapshot, BufferedImage deathSprite,
+                                 Rectangle viewport) {
+        for (int i = 0; i < snapshot.getDeathSpriteCount(); i++) {
+            float x = snapshot.getDeathSpriteX(i);
+            float y = snapshot.getDeathSpriteY(i);
+            if (isVisible(viewport, x, y, Game.TILES_SIZE, Game.TILES_SIZE)) {
+                g.drawImage(deathSprite, (int) x, (int) y, Game.TILES_SIZE, Game.TILES_SIZE, null);
+            }
         }
     }
 
+    public List<DeathSprite> getDeathSprites() {
+        return deathSprites;
+    }
+
     public void createSpikesFromTile(int tileId, int spriteId, BufferedImage[] sprites) {
-        for (int y = 0; y < lvlObstacleData.length; y++) {
-            for (int x = 0; x < lvlObstacleData[y].length; x++) {
-                if (lvlObstacleData[y][x] == tileId) {
-                    float posX = x * Game.TILES_SIZE;
-                    float posY = y * Game.TILES_SIZE;
-
-                    Spike spike = new Spike(posX, posY, Game.TILES_SIZE, Game.TILES_SIZE, sprites[spriteId]);
-                    spikes.add(spike);
-                }
-            }
+        for (int n = 0; n < obstacleIndex.count(tileId); n++) {
+            float posX = obstacleIndex.getX(tileId, n) * Game.TILES_SIZE;
+            float posY = obstacleIndex.getY(tileId, n) * Game.TILES_SIZE;
+
+            Spike spike = new Spike(posX, posY, Game.TILES_SIZE, Game.TILES_SIZE, sprites[spriteId]);
+            spikes.add(spike);
+            Rectangle2D.Float hb = spike.getHitbox();
+            spikeGrid.update(spikes.size() - 1, hb.x, hb.y, hb.width, hb.height);
         }
     }
 
-    public boolean checkSpikeCollision(Entity player) {
-        for (Spike spike : spikes) {
-            if (spike.checkPlayerCollision(player)) {
+    public boolean checkSpikeCollision(Rectangle2D.Float playerHitbox) {
+        int candidates = spikeGrid.query(playerHitbox.x, playerHitbox.y, playerHitbox.width, playerHitbox.height);
+        for (int c = 0; c < candidates; c++) {
+            Spike spike = spikes.get(spikeGrid.getResult(c));
+            if (spike.checkPlayerCollision(playerHitbox)) {
                 return true;
             }
         }
         return false;
     }
 
-    public void drawSpikes(Graphics g) {
-        for (Spike spike : spikes) {
-            spike.render(g);
+    public void drawSpikes(Graphics g, Rectangle viewport) {
+        for (int i = 0; i < spikes.size(); i++) {
+            Spike spike = spikes.get(i);
+            Rectangle2D.Float hitbox = spike.getHitbox();
+            if (isVisible(viewport, hitbox.x, hitbox.y, hitbox.width, hitbox.height)) {
+                spike.render(g);
+            }
         }
     }
 
@@ -377,39 +563,41 @@ public class Level {
                                             boolean shouldReturn, int id,
                                             int collisionWidth, int collisionHeight) {
 
-        for (int y = 0; y < lvlObstacleData.length; y++) {
-            for (int x = 0; x < lvlObstacleData[y].length; x++) {
-                if (lvlObstacleData[y][x] == tileId) {
-                    float posX = x * Game.TILES_SIZE;
-                    float posY = y * Game.TILES_SIZE;
-
-                    // Use provided collision size or default to full width, half height
-                    int cWidth = (collisionWidth > 0) ? collisionWidth : Game.TILES_SIZE;
-                    int cHeight = (collisionHeight > 0) ? collisionHeight : Game.TILES_SIZE / 2;
-
-                    TriggerSpike spike = new TriggerSpike(
-                            posX, posY,
-                            posX + targetOffsetX, posY + targetOffsetY,
-                            Game.TILES_SIZE, Game.TILES_SIZE,
-                            speed, triggerDistance,
-                            sprites[spriteId],
-                            shouldReturn,
-                            id,
-                            cWidth, cHeight
-                    );
-                    triggerSpikes.add(spike);
-                }
-            }
+        for (int n = 0; n < obstacleIndex.count(tileId); n++) {
+            float posX = obstacleIndex.getX(tileId, n) * Game.TILES_SIZE;
+            float posY = obstacleIndex.getY(tileId, n) * Game.TILES_SIZE;
+
+            // Use provided collision size or default to full width, half height
+            int cWidth = (collisionWidth > 0) ? collisionWidth : Game.TILES_SIZE;
+            int cHeight = (collisionHeight > 0) ? collisionHeight : Game.TILES_SIZE / 2;
+
+            TriggerSpike spike = new TriggerSpike(
+                    posX, posY,
+                    posX + targetOffsetX, posY + targetOffsetY,
+                    Game.TILES_SIZE, Game.TILES_SIZE,
+                    speed, triggerDistance,
+                    sprites[spriteId],
+                    shouldReturn,
+                    id,
+                    cWidth, cHeight
+            );
+            triggerSpikes.add(spike);
+            updateTriggerSpikeInGrid(triggerSpikes.size() - 1);
         }
     }
 
-    public void updateTriggerSpikes(Entity player) {
-        for (TriggerSpike spike : triggerSpikes) {
+    public void updateTriggerSpikes(Player player) {
+        // Same as the platforms, spikes far away from the player are left alone
+        int candidates = queryActiveRange(triggerSpikeGrid, player);
+        for (int c = 0; c < candidates; c++) {
+            int i = triggerSpikeGrid.getResult(c);
+            TriggerSpike spike = triggerSpikes.get(i);
             if (!spike.isTriggered() && spike.checkTriggerDistance(player)) {
                 spike.trigger();
                 // If this spike has a group ID, trigger all others with the same ID
                 if (spike.getId() != -1) {
-                    for (TriggerSpike otherSpike : triggerSpikes) {
+                    for (int j = 0; j < triggerSpikes.size(); j++) {
+                        TriggerSpike otherSpike = triggerSpikes.get(j);
                         if (otherSpike.getId() == spike.getId()) {
                             otherSpike.trigger();
                         }
@@ -417,18 +605,39 @@ public class Level {
                 }
             }
             spike.update();
+            updateTriggerSpikeInGrid(i);
         }
     }
 
-    public void drawTriggerSpikes(Graphics g) {
-        for (TriggerSpike spike : triggerSpikes) {
-            spike.render(g);
+    private int queryActiveRange(SpatialGrid grid, Player player) {
+        Rectangle2D.Float playerBox = player.getHitbox();
+        if (!player.isDead()) {
+            activeCenterX = playerBox.x + playerBox.width / 2;
+            activeCenterY = playerBox.y + playerBox.height / 2;
+        }
+        return grid.query(activeCenterX - playerBox.width / 2 - ACTIVE_RANGE_X,
+                activeCenterY - playerBox.height / 2 - ACTIVE_RANGE_Y,
+                playerBox.width + ACTIVE_RANGE_X * 2, playerBox.height + ACTIVE_RANGE_Y * 2);
+    }
+
+    public void drawTriggerSpikes(Graphics g, RenderSnapshot snapshot, float alpha, Rectangle viewport) {
+        int count = Math.min(snapshot.getTriggerSpikeCount(), triggerSpikes.size());
+        for (int i = 0; i < count; i++) {
+            float x = snapshot.getTriggerSpikeX(i, alpha);
+            float y = snapshot.getTriggerSpikeY(i, alpha);
+            Rectangle2D.Float hitbox = triggerSpikes.get(i).getHitbox();
+            if (isVisible(viewport, x, y, hitbox.width, hitbox.height)) {
+                triggerSpikes.get(i).render(g, x, y);
+            }
         }
     }
 
-    public boolean checkTriggerSpikeCollision(Entity player) {
-        for (TriggerSpike spike : triggerSpikes) {
-            if (spike.checkPlayerCollision(player)) {
+    public boolean checkTriggerSpikeCollision(Rectangle2D.Float playerHitbox) {
+        int candidates = triggerSpikeGrid.query(playerHitbox.x, playerHitbox.y,
+                playerHitbox.width, playerHitbox.height);
+        for (int c = 0; c < candidates; c++) {
+            TriggerSpike spike = triggerSpikes.get(triggerSpikeGrid.getResult(c));
+            if (spike.checkPlayerCollision(playerHitbox)) {
                 return true;
             }
         }
@@ -436,8 +645,8 @@ public class Level {
     }
 
     public void resetTriggerSpikes() {
-        for (TriggerSpike spike : triggerSpikes) {
-            spike.reset();
+        if (initialState != null) {
+            restoreTriggerSpikes(initialState, System.currentTimeMillis());
         }
     }
 
@@ -451,12 +660,16 @@ public class Level {
         }
     }
 
-    public void drawSpawnPlatform(Graphics g) {
-        if (spawnPlatform != null) {
-            spawnPlatform.render(g);
+    public void drawSpawnPlatform(Graphics g, RenderSnapshot snapshot) {
+        if (spawnPlatform != null && snapshot.hasSpawnPlatform()) {
+            spawnPlatform.render(g, snapshot.getSpawnPlatformY());
         }
     }
 
+    public SpawnPlatform getSpawnPlatform() {
+        return spawnPlatform;
+    }
+
     public void triggerSpawnPlatform() {
         if (spawnPlatform != null) {
             spawnPlatform.triggerSpawn();
@@ -471,15 +684,31 @@ public class Level {
         return spawnPlatform == null || spawnPlatform.hasReachedBottom();
     }
 
+    public int getWidthInTiles() {
+        return lvlData.getWidth();
+    }
+
+    public int getHeightInTiles() {
+        return lvlData.getHeight();
+    }
+
     public int getSpriteIndex(int x, int y) {
-        return lvlData[y][x];
+        return lvlData.get(x, y);
     }
 
     public int getObjectSpriteIndex(int x, int y) {
-        return lvlObjData[y][x];
+        return lvlObjData.get(x, y);
+    }
+
+    public CollisionMap getCollisionMap() {
+        return collisionMap;
+    }
+
+    public int getTileVersion() {
+        return tileVersion;
     }
 
-    public int[][] getLevelData() {
+    public TileLayer getLevelData() {
         return lvlData;
     }
 
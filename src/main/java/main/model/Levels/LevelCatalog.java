@@ -0,0 +1,138 @@
+package main.model.Levels;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import utilities.LoadSave;
+
+/**
+ * The levels the game knows about, read from the {@value #INDEX_FILE} index on the classpath.
+ * Only the index itself is read up front, so adding levels doesn't make startup any slower: thumbnails are
+ * decoded the first time they are drawn and the tile data once a level is actually played.
+ * <p>
+ * Each level is one line of the index:
+ * {@code level=name,tile image,obstacle image,object image,config file[,width,height[,thumbnail]]}.
+ */
+public class LevelCatalog {
+    public static final String INDEX_FILE = "levels.txt";
+
+    private static final String LEVEL_KEY = "level=";
+
+    private final List<LevelSource> levels;
+
+    public LevelCatalog(List<LevelSource> levels) {
+        this.levels = Collections.unmodifiableList(new ArrayList<>(levels));
+    }
+
+    /**
+     * Reads the default {@value #INDEX_FILE} index.
+     */
+    public static LevelCatalog load() {
+        return load(INDEX_FILE);
+    }
+
+    /**
+     * Reads a level index from the classpath. Lines that can't be parsed are reported and skipped.
+     *
+     * @param indexFileName resource name relative to the classpath root
+     * @return the catalog, empty if the index could not be read
+     */
+    public static LevelCatalog load(String indexFileName) {
+        List<LevelSource> levels = new ArrayList<>();
+
+        try {
+            InputStream is = LevelCatalog.class.getResourceAsStream("/" + indexFileName);
+            if (is == null) {
+                System.err.println("Could not find level index: " + indexFileName);
+                return new LevelCatalog(levels);
+            }
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue; // Skip empty lines and comments
+                    }
+                    if (!line.startsWith(LEVEL_KEY)) {
+                        System.err.println(indexFileName + ":" + lineNumber + ": unknown entry, skipped");
+                        continue;
+                    }
+                    try {
+                        levels.add(parseLevel(line.substring(LEVEL_KEY.length())));
+                    } catch (IllegalArgumentException e) {
+                        System.err.println(indexFileName + ":" + lineNumber + ": " + e.getMessage() + ", skipped");
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error loading level index " + indexFileName + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return new LevelCatalog(levels);
+    }
+
+    private static LevelSource parseLevel(String entry) {
+        String[] parts = entry.split(",");
+        if (parts.length < 5) {
+            throw new IllegalArgumentException("expected at least 5 fields but got " + parts.length);
+        }
+        if (parts.length == 6) {
+            // Width and height come as a pair, a lone width is a mistake rather than something to ignore
+            throw new IllegalArgumentException("expected at least 7 fields with a width but got " + parts.length);
+        }
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+        }
+
+        String tileFile = parts[1];
+        int width;
+        int height;
+        if (parts.length > 6) {
+            width = Integer.parseInt(parts[5]);
+            height = Integer.parseInt(parts[6]);
+        } else {
+            // Not in the index, the PNG header has it without decoding the pixels
+            Dimension size = LoadSave.readImageSize(tileFile);
+            if (size == null) {
+                throw new IllegalArgumentException("could not read the size of " + tileFile);
+            }
+            width = size.width;
+            height = size.height;
+        }
+        String thumbnailFile = parts.length > 7 ? parts[7] : tileFile;
+
+        return new LevelSource(parts[0], tileFile, parts[2], parts[3], parts[4], thumbnailFile, width, height);
+    }
+
+    public int size() {
+        return levels.size();
+    }
+
+    public LevelSource get(int index) {
+        return levels.get(index);
+    }
+
+    public List<LevelSource> getLevels() {
+        return levels;
+    }
+
+    /**
+     * Returns the preview image of a level, decoding it on first use.
+     *
+     * @return the thumbnail, or null if it could not be loaded
+     */
+    public BufferedImage getThumbnail(int index) {
+        return LoadSave.getSpriteAtlas(levels.get(index).getThumbnailFile());
+    }
+}
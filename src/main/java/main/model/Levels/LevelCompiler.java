@@ -0,0 +1,34 @@
+package main.model.Levels;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import utilities.LoadSave;
+
+/**
+ * Builds the compiled {@code .lvl} files from the level PNGs and config files of every level in the catalog.
+ * Run it again after editing a level, otherwise the game keeps loading the old compiled version.
+ * <p>
+ * Usage: {@code LevelCompiler [outputDir]}, the output defaults to src/main/resources.
+ */
+public class LevelCompiler {
+
+    public static void main(String[] args) throws IOException {
+        Path outputDir = Paths.get(args.length > 0 ? args[0] : "src/main/resources");
+        Files.createDirectories(outputDir);
+
+        for (LevelSource source : LevelCatalog.load().getLevels()) {
+            LevelFileCodec.LevelFile file = new LevelFileCodec.LevelFile();
+            file.tiles = LoadSave.getLevelData(source.getTileFile());
+            file.obstacles = LoadSave.getLevelObstacleData(source.getObstacleFile(), file.tiles);
+            file.objects = LoadSave.getLevelObjData(source.getObjectFile(), file.tiles);
+            file.config = LevelConfigLoader.loadConfig(source.getConfigFile());
+
+            Path target = outputDir.resolve(source.getBinaryFile());
+            LevelFileCodec.write(file, target);
+            System.out.println("Wrote " + target + " (" + Files.size(target) + " bytes)");
+        }
+    }
+}
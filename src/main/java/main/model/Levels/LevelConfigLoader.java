@@ -2,8 +2,11 @@ package main.model.Levels;
 
 import java.awt.image.BufferedImage;
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -68,69 +71,7 @@ public class LevelConfigLoader {
             }
 
             BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("#")) {
-                    continue; // Skip empty lines and comments
-                }
-
-                if (line.startsWith("spawnX=")) {
-                    config.spawnX = Float.parseFloat(line.substring(7));
-                } else if (line.startsWith("spawnY=")) {
-                    config.spawnY = Float.parseFloat(line.substring(7));
-                } else if (line.startsWith("spawnPlatform=")) {
-                    String[] parts = line.substring(14).split(",");
-                    SpawnPlatformConfig sp = new SpawnPlatformConfig();
-                    sp.x = Float.parseFloat(parts[0].trim());
-                    sp.y = Float.parseFloat(parts[1].trim());
-                    sp.width = Float.parseFloat(parts[2].trim());
-                    sp.height = Float.parseFloat(parts[3].trim());
-                    sp.speed = Float.parseFloat(parts[4].trim());
-                    sp.waitTime = Float.parseFloat(parts[5].trim());
-                    config.spawnPlatforms.add(sp);
-                } else if (line.startsWith("groupedTriggerPlatform=")) {
-                    String[] parts = line.substring(23).split(",");
-                    GroupedTriggerPlatformConfig gtp = new GroupedTriggerPlatformConfig();
-                    gtp.tileId = Integer.parseInt(parts[0].trim());
-                    gtp.targetOffsetX = Float.parseFloat(parts[1].trim());
-                    gtp.targetOffsetY = Float.parseFloat(parts[2].trim());
-                    gtp.speed = Float.parseFloat(parts[3].trim());
-                    gtp.shouldReturn = Boolean.parseBoolean(parts[4].trim());
-                    gtp.solid = Boolean.parseBoolean(parts[5].trim());
-                    // Add default values for new fields if not present (backward compatibility)
-                    if (parts.length > 6) {
-                        gtp.shouldLoop = Boolean.parseBoolean(parts[6].trim());
-                    }
-                    config.groupedTriggerPlatforms.add(gtp);
-                } else if (line.startsWith("spike=")) {
-                    String[] parts = line.substring(6).split(",");
-                    SpikeConfig sc = new SpikeConfig();
-                    sc.tileId = Integer.parseInt(parts[0].trim());
-                    sc.spriteId = Integer.parseInt(parts[1].trim());
-                    config.spikes.add(sc);
-                } else if (line.startsWith("triggerSpike=")) {
-                    String[] parts = line.substring(13).split(",");
-                    TriggerSpikeConfig tsc = new TriggerSpikeConfig();
-                    tsc.tileId = Integer.parseInt(parts[0].trim());
-                    tsc.spriteId = Integer.parseInt(parts[1].trim());
-                    tsc.targetOffsetX = Float.parseFloat(parts[2].trim());
-                    tsc.targetOffsetY = Float.parseFloat(parts[3].trim());
-                    tsc.speed = Float.parseFloat(parts[4].trim());
-                    tsc.triggerDistance = Float.parseFloat(parts[5].trim());
-                    tsc.shouldReturn = Boolean.parseBoolean(parts[6].trim());
-                    if (parts.length > 7) {
-                        tsc.id = Integer.parseInt(parts[7].trim());
-                    }
-                    if (parts.length > 9) {
-                        tsc.collisionWidth = Integer.parseInt(parts[8].trim());
-                        tsc.collisionHeight = Integer.parseInt(parts[9].trim());
-                    }
-                    config.triggerSpikes.add(tsc);
-                }
-            }
-
+            parseConfig(reader, config);
             reader.close();
         } catch (Exception e) {
             System.err.println("Error loading config file " + configFileName + ": " + e.getMessage());
@@ -140,6 +81,90 @@ public class LevelConfigLoader {
         return config;
     }
 
+    /**
+     * Reads a config file straight from disk instead of the classpath, used to reload levels while editing them.
+     * Unlike the classpath version it fails instead of returning what it got so far, a half saved config must
+     * not replace a working level.
+     *
+     * @throws IOException if the file can't be read or a line can't be parsed
+     */
+    public static LevelConfig loadConfig(Path configFile) throws IOException {
+        LevelConfig config = new LevelConfig();
+
+        try (BufferedReader reader = Files.newBufferedReader(configFile)) {
+            parseConfig(reader, config);
+        } catch (RuntimeException e) {
+            throw new IOException("Error in config file " + configFile + ": " + e.getMessage(), e);
+        }
+
+        return config;
+    }
+
+    private static void parseConfig(BufferedReader reader, LevelConfig config) throws IOException {
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue; // Skip empty lines and comments
+            }
+
+            if (line.startsWith("spawnX=")) {
+                config.spawnX = Float.parseFloat(line.substring(7));
+            } else if (line.startsWith("spawnY=")) {
+                config.spawnY = Float.parseFloat(line.substring(7));
+            } else if (line.startsWith("spawnPlatform=")) {
+                String[] parts = line.substring(14).split(",");
+                SpawnPlatformConfig sp = new SpawnPlatformConfig();
+                sp.x = Float.parseFloat(parts[0].trim());
+                sp.y = Float.parseFloat(parts[1].trim());
+                sp.width = Float.parseFloat(parts[2].trim());
+                sp.height = Float.parseFloat(parts[3].trim());
+                sp.speed = Float.parseFloat(parts[4].trim());
+                sp.waitTime = Float.parseFloat(parts[5].trim());
+                config.spawnPlatforms.add(sp);
+            } else if (line.startsWith("groupedTriggerPlatform=")) {
+                String[] parts = line.substring(23).split(",");
+                GroupedTriggerPlatformConfig gtp = new GroupedTriggerPlatformConfig();
+                gtp.tileId = Integer.parseInt(parts[0].trim());
+                gtp.targetOffsetX = Float.parseFloat(parts[1].trim());
+                gtp.targetOffsetY = Float.parseFloat(parts[2].trim());
+                gtp.speed = Float.parseFloat(parts[3].trim());
+                gtp.shouldReturn = Boolean.parseBoolean(parts[4].trim());
+                gtp.solid = Boolean.parseBoolean(parts[5].trim());
+                // Add default values for new fields if not present (backward compatibility)
+                if (parts.length > 6) {
+                    gtp.shouldLoop = Boolean.parseBoolean(parts[6].trim());
+                }
+                config.groupedTriggerPlatforms.add(gtp);
+            } else if (line.startsWith("spike=")) {
+                String[] parts = line.substring(6).split(",");
+                SpikeConfig sc = new SpikeConfig();
+                sc.tileId = Integer.parseInt(parts[0].trim());
+                sc.spriteId = Integer.parseInt(parts[1].trim());
+                config.spikes.add(sc);
+            } else if (line.startsWith("triggerSpike=")) {
+                String[] parts = line.substring(13).split(",");
+                TriggerSpikeConfig tsc = new TriggerSpikeConfig();
+                tsc.tileId = Integer.parseInt(parts[0].trim());
+                tsc.spriteId = Integer.parseInt(parts[1].trim());
+                tsc.targetOffsetX = Float.parseFloat(parts[2].trim());
+                tsc.targetOffsetY = Float.parseFloat(parts[3].trim());
+                tsc.speed = Float.parseFloat(parts[4].trim());
+                tsc.triggerDistance = Float.parseFloat(parts[5].trim());
+                tsc.shouldReturn = Boolean.parseBoolean(parts[6].trim());
+                if (parts.length > 7) {
+                    tsc.id = Integer.parseInt(parts[7].trim());
+                }
+                if (parts.length > 9) {
+                    tsc.collisionWidth = Integer.parseInt(parts[8].trim());
+                    tsc.collisionHeight = Integer.parseInt(parts[9].trim());
+                }
+                config.triggerSpikes.add(tsc);
+            }
+        }
+    }
+
     public static void applyConfig(Level level, LevelConfig config, BufferedImage[] levelSprite,
                                    BufferedImage[] objectSprite, BufferedImage spawnTube) {
         // Apply spawn platforms (use the last one if multiple)
@@ -166,6 +191,9 @@ public class LevelConfigLoader {
                     tsc.speed, tsc.triggerDistance, objectSprite, tsc.shouldReturn, tsc.id,
                     tsc.collisionWidth, tsc.collisionHeight);
         }
+
+        // Everything that moves is in place now, this is what a reset goes back to
+        level.saveInitialState();
     }
 }
 
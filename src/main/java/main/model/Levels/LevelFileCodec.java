@@ -0,0 +1,279 @@
+package main.model.Levels;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import main.model.Levels.LevelConfigLoader.GroupedTriggerPlatformConfig;
+import main.model.Levels.LevelConfigLoader.LevelConfig;
+import main.model.Levels.LevelConfigLoader.SpawnPlatformConfig;
+import main.model.Levels.LevelConfigLoader.SpikeConfig;
+import main.model.Levels.LevelConfigLoader.TriggerSpikeConfig;
+
+/**
+ * Reads and writes the compiled {@code .lvl} format, which holds everything the three level PNGs and the
+ * level config file describe in one file.
+ * <p>
+ * Layout (big endian): magic "LVL1" as an int, version (short), width and height in tiles (shorts),
+ * then the tile, obstacle and object layers as one unsigned byte per tile, row by row,
+ * then the config: spawn x/y followed by the spawn platforms, grouped trigger platforms, spikes and
+ * trigger spikes, each list prefixed with its length.
+ */
+public class LevelFileCodec {
+    public static final int MAGIC = 0x4C564C31;
+    public static final short VERSION = 1;
+    public static final String EXTENSION = ".lvl";
+
+    // Sizes are stored as unsigned shorts
+    private static final int MAX_SIZE = 0xFFFF;
+    private static final int HEADER_BYTES = 4 + 2 + 2 + 2;
+    // Bytes per entry of each config list
+    private static final int SPAWN_PLATFORM_BYTES = 6 * 4;
+    private static final int GROUPED_PLATFORM_BYTES = 4 + 3 * 4 + 3;
+    private static final int SPIKE_BYTES = 2 * 4;
+    private static final int TRIGGER_SPIKE_BYTES = 2 * 4 + 4 * 4 + 1 + 3 * 4;
+
+    /**
+     * Contents of one compiled level.
+     */
+    public static class LevelFile {
+        public TileLayer tiles;
+        public TileLayer obstacles;
+        public TileLayer objects;
+        public LevelConfig config;
+    }
+
+    /**
+     * Loads a compiled level from the classpath. Files on disk are memory mapped,
+     * resources inside a jar are read into a single buffer.
+     *
+     * @return the level, or null if there is no such resource
+     * @throws IOException if the file exists but can't be read or has the wrong format/version
+     */
+    public static LevelFile readResource(String fileName) throws IOException {
+        URL url = LevelFileCodec.class.getResource("/" + fileName);
+        if (url == null) {
+            return null;
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return read(Paths.get(url.toURI()));
+            } catch (URISyntaxException e) {
+                throw new IOException("Bad level file location " + url, e);
+            }
+        }
+        try (InputStream is = url.openStream()) {
+            return decode(ByteBuffer.wrap(is.readAllBytes()));
+        }
+    }
+
+    public static LevelFile read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static void write(LevelFile level, Path path) throws IOException {
+        Files.write(path, encode(level).array());
+    }
+
+    /**
+     * Every length in the file is checked against the bytes that are left before it is used, so a truncated or
+     * corrupt file fails with an IOException instead of reading past the end.
+     */
+    public static LevelFile decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a level file");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported level file version " + version + ", expected " + VERSION);
+        }
+        int width = buffer.getShort() & MAX_SIZE;
+        int height = buffer.getShort() & MAX_SIZE;
+        if (width == 0 || height == 0) {
+            throw new IOException("Level file has an empty size " + width + "x" + height);
+        }
+        if (buffer.remaining() < 3L * width * height) {
+            throw new IOException("Level file ends inside its " + width + "x" + height + " tile layers");
+        }
+
+        LevelFile level = new LevelFile();
+        level.tiles = readLayer(buffer, width, height);
+        level.obstacles = readLayer(buffer, width, height);
+        level.objects = readLayer(buffer, width, height);
+        level.config = readConfig(buffer);
+        return level;
+    }
+
+    public static ByteBuffer encode(LevelFile level) {
+        int width = level.tiles.getWidth();
+        int height = level.tiles.getHeight();
+        if (!level.tiles.isSameSize(level.obstacles) || !level.tiles.isSameSize(level.objects)) {
+            throw new IllegalArgumentException("Level layers differ in size: tiles " + level.tiles + ", obstacles "
+                    + level.obstacles + ", objects " + level.objects);
+        }
+        if (width > MAX_SIZE || height > MAX_SIZE) {
+            throw new IllegalArgumentException("Level is " + width + "x" + height + ", the format holds at most "
+                    + MAX_SIZE + " tiles per side");
+        }
+        LevelConfig config = level.config;
+
+        int size = HEADER_BYTES
+                + 3 * width * height
+                + 4 + 4
+                + 4 + config.spawnPlatforms.size() * SPAWN_PLATFORM_BYTES
+                + 4 + config.groupedTriggerPlatforms.size() * GROUPED_PLATFORM_BYTES
+                + 4 + config.spikes.size() * SPIKE_BYTES
+                + 4 + config.triggerSpikes.size() * TRIGGER_SPIKE_BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) width);
+        buffer.putShort((short) height);
+        writeLayer(buffer, level.tiles);
+        writeLayer(buffer, level.obstacles);
+        writeLayer(buffer, level.objects);
+        writeConfig(buffer, config);
+        buffer.flip();
+        return buffer;
+    }
+
+    // Layers are stored exactly like TileLayer keeps them, so they are copied in one go
+    private static TileLayer readLayer(ByteBuffer buffer, int width, int height) {
+        byte[] tiles = new byte[width * height];
+        buffer.get(tiles);
+        return new TileLayer(width, height, tiles);
+    }
+
+    private static void writeLayer(ByteBuffer buffer, TileLayer layer) {
+        buffer.put(layer.getData());
+    }
+
+    private static LevelConfig readConfig(ByteBuffer buffer) throws IOException {
+        LevelConfig config = new LevelConfig();
+        if (buffer.remaining() < 4 + 4) {
+            throw new IOException("Level file ends before its config");
+        }
+        config.spawnX = buffer.getFloat();
+        config.spawnY = buffer.getFloat();
+
+        int count = readCount(buffer, SPAWN_PLATFORM_BYTES, "spawn platforms");
+        for (int i = 0; i < count; i++) {
+            SpawnPlatformConfig sp = new SpawnPlatformConfig();
+            sp.x = buffer.getFloat();
+            sp.y = buffer.getFloat();
+            sp.width = buffer.getFloat();
+            sp.height = buffer.getFloat();
+            sp.speed = buffer.getFloat();
+            sp.waitTime = buffer.getFloat();
+            config.spawnPlatforms.add(sp);
+        }
+
+        count = readCount(buffer, GROUPED_PLATFORM_BYTES, "grouped trigger platforms");
+        for (int i = 0; i < count; i++) {
+            GroupedTriggerPlatformConfig gtp = new GroupedTriggerPlatformConfig();
+            gtp.tileId = buffer.getInt();
+            gtp.targetOffsetX = buffer.getFloat();
+            gtp.targetOffsetY = buffer.getFloat();
+            gtp.speed = buffer.getFloat();
+            gtp.shouldReturn = buffer.get() != 0;
+            gtp.solid = buffer.get() != 0;
+            gtp.shouldLoop = buffer.get() != 0;
+            config.groupedTriggerPlatforms.add(gtp);
+        }
+
+        count = readCount(buffer, SPIKE_BYTES, "spikes");
+        for (int i = 0; i < count; i++) {
+            SpikeConfig sc = new SpikeConfig();
+            sc.tileId = buffer.getInt();
+            sc.spriteId = buffer.getInt();
+            config.spikes.add(sc);
+        }
+
+        count = readCount(buffer, TRIGGER_SPIKE_BYTES, "trigger spikes");
+        for (int i = 0; i < count; i++) {
+            TriggerSpikeConfig tsc = new TriggerSpikeConfig();
+            tsc.tileId = buffer.getInt();
+            tsc.spriteId = buffer.getInt();
+            tsc.targetOffsetX = buffer.getFloat();
+            tsc.targetOffsetY = buffer.getFloat();
+            tsc.speed = buffer.getFloat();
+            tsc.triggerDistance = buffer.getFloat();
+            tsc.shouldReturn = buffer.get() != 0;
+            tsc.id = buffer.getInt();
+            tsc.collisionWidth = buffer.getInt();
+            tsc.collisionHeight = buffer.getInt();
+            config.triggerSpikes.add(tsc);
+        }
+        return config;
+    }
+
+    // Reads the length of a config list and checks the whole list is still in the buffer
+    private static int readCount(ByteBuffer buffer, int entryBytes, String what) throws IOException {
+        if (buffer.remaining() < 4) {
+            throw new IOException("Level file ends before its " + what);
+        }
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * entryBytes > buffer.remaining()) {
+            throw new IOException("Level file has " + count + " " + what + " but only " + buffer.remaining()
+                    + " bytes left");
+        }
+        return count;
+    }
+
+    private static void writeConfig(ByteBuffer buffer, LevelConfig config) {
+        buffer.putFloat(config.spawnX);
+        buffer.putFloat(config.spawnY);
+
+        buffer.putInt(config.spawnPlatforms.size());
+        for (SpawnPlatformConfig sp : config.spawnPlatforms) {
+            buffer.putFloat(sp.x);
+            buffer.putFloat(sp.y);
+            buffer.putFloat(sp.width);
+            buffer.putFloat(sp.height);
+            buffer.putFloat(sp.speed);
+            buffer.putFloat(sp.waitTime);
+        }
+
+        buffer.putInt(config.groupedTriggerPlatforms.size());
+        for (GroupedTriggerPlatformConfig gtp : config.groupedTriggerPlatforms) {
+            buffer.putInt(gtp.tileId);
+            buffer.putFloat(gtp.targetOffsetX);
+            buffer.putFloat(gtp.targetOffsetY);
+            buffer.putFloat(gtp.speed);
+            buffer.put((byte) (gtp.shouldReturn ? 1 : 0));
+            buffer.put((byte) (gtp.solid ? 1 : 0));
+            buffer.put((byte) (gtp.shouldLoop ? 1 : 0));
+        }
+
+        buffer.putInt(config.spikes.size());
+        for (SpikeConfig sc : config.spikes) {
+            buffer.putInt(sc.tileId);
+            buffer.putInt(sc.spriteId);
+        }
+
+        buffer.putInt(config.triggerSpikes.size());
+        for (TriggerSpikeConfig tsc : config.triggerSpikes) {
+            buffer.putInt(tsc.tileId);
+            buffer.putInt(tsc.spriteId);
+            buffer.putFloat(tsc.targetOffsetX);
+            buffer.putFloat(tsc.targetOffsetY);
+            buffer.putFloat(tsc.speed);
+            buffer.putFloat(tsc.triggerDistance);
+            buffer.put((byte) (tsc.shouldReturn ? 1 : 0));
+            buffer.putInt(tsc.id);
+            buffer.putInt(tsc.collisionWidth);
+            buffer.putInt(tsc.collisionHeight);
+        }
+    }
+}
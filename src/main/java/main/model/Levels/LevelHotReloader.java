@@ -0,0 +1,132 @@
+package main.model.Levels;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+import main.controller.Game;
+import utilities.LoadSave;
+
+/**
+ * Development helper that watches the level files on disk and reports which levels changed as soon as
+ * one of their files is saved, so a level can be edited without restarting the game.
+ * Turned on with {@code -Dgame.dev=true}, the files are then read from the watched directory instead of
+ * the classpath so that the game always sees the latest saved version.
+ */
+public class LevelHotReloader {
+    // Editors tend to save a file in several writes, wait for them to settle before reloading
+    private static final long SETTLE_MILLIS = 50;
+
+    private final Path directory;
+    private final LevelCatalog catalog;
+    private final IntConsumer onLevelChanged;
+
+    /**
+     * @param directory      directory holding the level files, usually src/main/resources
+     * @param catalog        the levels to watch
+     * @param onLevelChanged called on the watcher thread with the index of every level that was changed
+     */
+    public LevelHotReloader(Path directory, LevelCatalog catalog, IntConsumer onLevelChanged) {
+        this.directory = directory;
+        this.catalog = catalog;
+        this.onLevelChanged = onLevelChanged;
+    }
+
+    public static boolean isEnabled() {
+        return Game.DEV_MODE;
+    }
+
+    public static Path getDefaultDirectory() {
+        return Paths.get("src", "main", "resources");
+    }
+
+    /**
+     * Starts watching on a background thread.
+     *
+     * @throws IOException if the directory can't be watched
+     */
+    public void start() throws IOException {
+        WatchService watcher = directory.getFileSystem().newWatchService();
+        directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread thread = new Thread(() -> watch(watcher), "level-hot-reload");
+        // Watching must never keep the game from exiting
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("Watching " + directory.toAbsolutePath() + " for level changes");
+    }
+
+    /**
+     * Reads the source files of a level from the watched directory. Files that aren't there are read from
+     * the classpath as usual. The compiled .lvl file is skipped since it is stale as soon as a source is edited.
+     *
+     * @throws IOException if a file in the directory can't be decoded, the level must then be left as it is
+     */
+    public LevelFileCodec.LevelFile readLevelFile(LevelSource source) throws IOException {
+        LevelFileCodec.LevelFile file = new LevelFileCodec.LevelFile();
+        Path tiles = directory.resolve(source.getTileFile());
+        Path obstacles = directory.resolve(source.getObstacleFile());
+        Path objects = directory.resolve(source.getObjectFile());
+        Path config = directory.resolve(source.getConfigFile());
+
+        file.tiles = Files.isRegularFile(tiles)
+                ? LoadSave.readLevelData(tiles, LoadSave.RED) : LoadSave.getLevelData(source.getTileFile());
+        file.obstacles = Files.isRegularFile(obstacles)
+                ? LoadSave.readLevelData(obstacles, LoadSave.GREEN)
+                : LoadSave.getLevelObstacleData(source.getObstacleFile(), file.tiles);
+        file.objects = Files.isRegularFile(objects)
+                ? LoadSave.readLevelData(objects, LoadSave.BLUE)
+                : LoadSave.getLevelObjData(source.getObjectFile(), file.tiles);
+        file.config = Files.isRegularFile(config)
+                ? LevelConfigLoader.loadConfig(config) : LevelConfigLoader.loadConfig(source.getConfigFile());
+        return file;
+    }
+
+    private void watch(WatchService watcher) {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                Thread.sleep(SETTLE_MILLIS);
+
+                // Collect everything that changed in the meantime so a level saved in several writes loads once
+                Set<String> changedFiles = new HashSet<>();
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() != StandardWatchEventKinds.OVERFLOW) {
+                            changedFiles.add(((Path) event.context()).getFileName().toString());
+                        }
+                    }
+                    if (!key.reset()) {
+                        System.err.println("Stopped watching " + directory + ", it is no longer accessible");
+                        return;
+                    }
+                    key = watcher.poll();
+                }
+
+                for (int i = 0; i < catalog.size(); i++) {
+                    if (usesAny(catalog.get(i), changedFiles)) {
+                        onLevelChanged.accept(i);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private static boolean usesAny(LevelSource source, Set<String> files) {
+        return files.contains(source.getTileFile()) || files.contains(source.getObstacleFile())
+                || files.contains(source.getObjectFile()) || files.contains(source.getConfigFile());
+    }
+}
@@ -0,0 +1,292 @@
+package main.model.Levels;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static main.controller.Game.GAME_HEIGHT;
+import static main.controller.Game.GAME_WIDTH;
+import static main.controller.Game.TILES_SIZE;
+
+/**
+ * Keeps the static parts of a level (background, tiles, objects) pre-drawn into square chunks, so a frame
+ * costs one drawImage per visible chunk instead of one per tile.
+ * Chunks are only baked once they come into view and the least recently drawn ones are dropped once more
+ * than a couple of screens worth is held, so memory depends on the screen size and not on the level size.
+ * Everything is rebaked when a different level is drawn or the level's tile data changes.
+ */
+public class LevelLayerCache {
+    // Chunk edge in tiles, few enough chunks per screen to keep the draw calls down
+    private static final int CHUNK_TILES = 16;
+    private static final int CHUNK_SIZE = CHUNK_TILES * TILES_SIZE;
+    // Room for two screens of chunks, so walking back and forth doesn't rebake all the time
+    private static final int MAX_CHUNKS = 2 * (GAME_WIDTH / CHUNK_SIZE + 2) * (GAME_HEIGHT / CHUNK_SIZE + 2);
+
+    private final BufferedImage[] levelSprite;
+    private final BufferedImage[] objectSprite;
+    private final BufferedImage background;
+
+    private Level bakedLevel;
+    private int bakedTileVersion = -1;
+    private int chunkCols;
+    private int chunkRows;
+    private Chunk[] chunks = new Chunk[0];
+    private final List<Chunk> residentChunks = new ArrayList<>();
+    private long frame;
+
+    // Images of dropped chunks, reused for the next ones instead of allocating new ones
+    private final Deque<BufferedImage> freeOpaque = new ArrayDeque<>();
+    private final Deque<BufferedImage> freeTranslucent = new ArrayDeque<>();
+
+    private static final class Chunk {
+        private final int col;
+        private final int row;
+        private BufferedImage base;
+        // Null when the chunk has no object tiles, which is most of them
+        private BufferedImage objects;
+        private long lastDrawn;
+
+        private Chunk(int col, int row) {
+            this.col = col;
+            this.row = row;
+        }
+    }
+
+    public LevelLayerCache(BufferedImage[] levelSprite, BufferedImage[] objectSprite, BufferedImage background) {
+        this.levelSprite = levelSprite;
+        this.objectSprite = objectSprite;
+        // Scale the background once here instead of on every frame
+        this.background = createImage(GAME_WIDTH, GAME_HEIGHT, Transparency.OPAQUE);
+        Graphics2D g = this.background.createGraphics();
+        g.drawImage(background, 0, 0, GAME_WIDTH, GAME_HEIGHT, null);
+        g.dispose();
+    }
+
+    /**
+     * Draws the background with the tiles on top for the visible part of the level.
+     *
+     * @param viewport visible area in level pixels, the graphics must already be translated to it
+     */
+    public void drawBase(Graphics g, Level level, Rectangle viewport) {
+        ensureLevel(level);
+        frame++;
+        if (chunkCols * CHUNK_SIZE < viewport.x + viewport.width
+                || chunkRows * CHUNK_SIZE < viewport.y + viewport.height) {
+            // Level is smaller than the screen, keep the background behind the uncovered part
+            g.drawImage(background, viewport.x, viewport.y, null);
+        }
+        int maxCol = Math.min(chunkCols - 1, (viewport.x + viewport.width - 1) / CHUNK_SIZE);
+        int maxRow = Math.min(chunkRows - 1, (viewport.y + viewport.height - 1) / CHUNK_SIZE);
+        for (int row = Math.max(0, viewport.y / CHUNK_SIZE); row <= maxRow; row++) {
+            for (int col = Math.max(0, viewport.x / CHUNK_SIZE); col <= maxCol; col++) {
+                g.drawImage(getChunk(level, col, row).base, col * CHUNK_SIZE, row * CHUNK_SIZE, null);
+            }
+        }
+    }
+
+    /**
+     * Draws the tiles again over the given area, for things that should appear behind the tiles
+     * but had to be drawn after {@link #drawBase}.
+     */
+    public void redrawTiles(Graphics g, Level level, int x, int y, int width, int height) {
+        int maxCol = Math.min(level.getWidthInTiles() - 1, (x + width - 1) / TILES_SIZE);
+        int maxRow = Math.min(level.getHeightInTiles() - 1, (y + height - 1) / TILES_SIZE);
+        for (int row = Math.max(0, Math.floorDiv(y, TILES_SIZE)); row <= maxRow; row++) {
+            for (int col = Math.max(0, Math.floorDiv(x, TILES_SIZE)); col <= maxCol; col++) {
+                // Only the part of the tile inside the area, same as cutting it out of a baked tile layer
+                int tileX = col * TILES_SIZE;
+                int tileY = row * TILES_SIZE;
+                int left = Math.max(x, tileX);
+                int top = Math.max(y, tileY);
+                int right = Math.min(x + width, tileX + TILES_SIZE);
+                int bottom = Math.min(y + height, tileY + TILES_SIZE);
+                BufferedImage sprite = levelSprite[level.getSpriteIndex(col, row)];
+                int spriteSize = sprite.getWidth();
+                g.drawImage(sprite, left, top, right, bottom,
+                        (left - tileX) * spriteSize / TILES_SIZE, (top - tileY) * spriteSize / TILES_SIZE,
+                        (right - tileX) * spriteSize / TILES_SIZE, (bottom - tileY) * spriteSize / TILES_SIZE, null);
+            }
+        }
+    }
+
+    /**
+     * Draws the object tiles for the visible part of the level.
+     */
+    public void drawObjects(Graphics g, Level level, Rectangle viewport) {
+        ensureLevel(level);
+        int maxCol = Math.min(chunkCols - 1, (viewport.x + viewport.width - 1) / CHUNK_SIZE);
+        int maxRow = Math.min(chunkRows - 1, (viewport.y + viewport.height - 1) / CHUNK_SIZE);
+        for (int row = Math.max(0, viewport.y / CHUNK_SIZE); row <= maxRow; row++) {
+            for (int col = Math.max(0, viewport.x / CHUNK_SIZE); col <= maxCol; col++) {
+                Chunk chunk = getChunk(level, col, row);
+                if (chunk.objects != null) {
+                    g.drawImage(chunk.objects, col * CHUNK_SIZE, row * CHUNK_SIZE, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Bakes the chunks covering the given area ahead of time, so the first frames that show it don't have to.
+     * Can run on another thread as long as nothing is drawing with this cache yet.
+     */
+    public void prepare(Level level, Rectangle area) {
+        ensureLevel(level);
+        frame++;
+        int maxCol = Math.min(chunkCols - 1, (area.x + area.width - 1) / CHUNK_SIZE);
+        int maxRow = Math.min(chunkRows - 1, (area.y + area.height - 1) / CHUNK_SIZE);
+        for (int row = Math.max(0, area.y / CHUNK_SIZE); row <= maxRow; row++) {
+            for (int col = Math.max(0, area.x / CHUNK_SIZE); col <= maxCol; col++) {
+                getChunk(level, col, row);
+            }
+        }
+    }
+
+    /**
+     * @return true if the chunks held are for this level as it is now
+     */
+    public boolean isBakedFor(Level level) {
+        return level == bakedLevel && level.getTileVersion() == bakedTileVersion;
+    }
+
+    /**
+     * Forgets the baked chunks, the next draw bakes them again.
+     */
+    public void invalidate() {
+        bakedLevel = null;
+    }
+
+    /**
+     * @return number of chunks currently baked
+     */
+    public int getResidentChunkCount() {
+        return residentChunks.size();
+    }
+
+    private void ensureLevel(Level level) {
+        if (isBakedFor(level)) {
+            return;
+        }
+        for (int i = 0; i < residentChunks.size(); i++) {
+            recycle(residentChunks.get(i));
+        }
+        residentChunks.clear();
+        chunkCols = (level.getWidthInTiles() + CHUNK_TILES - 1) / CHUNK_TILES;
+        chunkRows = (level.getHeightInTiles() + CHUNK_TILES - 1) / CHUNK_TILES;
+        chunks = new Chunk[chunkCols * chunkRows];
+        bakedLevel = level;
+        bakedTileVersion = level.getTileVersion();
+    }
+
+    private Chunk getChunk(Level level, int col, int row) {
+        Chunk chunk = chunks[row * chunkCols + col];
+        if (chunk == null) {
+            if (residentChunks.size() >= MAX_CHUNKS) {
+                evictLeastRecentlyDrawn();
+            }
+            chunk = new Chunk(col, row);
+            bake(chunk, level);
+            chunks[row * chunkCols + col] = chunk;
+            residentChunks.add(chunk);
+        }
+        chunk.lastDrawn = frame;
+        return chunk;
+    }
+
+    // Only ever a few dozen chunks, a scan is cheaper than keeping them ordered
+    private void evictLeastRecentlyDrawn() {
+        int oldest = 0;
+        for (int i = 1; i < residentChunks.size(); i++) {
+            if (residentChunks.get(i).lastDrawn < residentChunks.get(oldest).lastDrawn) {
+                oldest = i;
+            }
+        }
+        Chunk chunk = residentChunks.get(oldest);
+        residentChunks.set(oldest, residentChunks.get(residentChunks.size() - 1));
+        residentChunks.remove(residentChunks.size() - 1);
+        chunks[chunk.row * chunkCols + chunk.col] = null;
+        recycle(chunk);
+    }
+
+    private void recycle(Chunk chunk) {
+        freeOpaque.push(chunk.base);
+        if (chunk.objects != null) {
+            freeTranslucent.push(chunk.objects);
+        }
+    }
+
+    private void bake(Chunk chunk, Level level) {
+        int originX = chunk.col * CHUNK_SIZE;
+        int originY = chunk.row * CHUNK_SIZE;
+        int firstCol = chunk.col * CHUNK_TILES;
+        int firstRow = chunk.row * CHUNK_TILES;
+        int lastCol = Math.min(level.getWidthInTiles(), firstCol + CHUNK_TILES);
+        int lastRow = Math.min(level.getHeightInTiles(), firstRow + CHUNK_TILES);
+
+        chunk.base = freeOpaque.isEmpty() ? createImage(CHUNK_SIZE, CHUNK_SIZE, Transparency.OPAQUE)
+                : freeOpaque.pop();
+        Graphics2D g = chunk.base.createGraphics();
+        // The background repeats every screen, so a level of one screen looks the same as it always did
+        for (int y = Math.floorDiv(originY, GAME_HEIGHT) * GAME_HEIGHT; y < originY + CHUNK_SIZE; y += GAME_HEIGHT) {
+            for (int x = Math.floorDiv(originX, GAME_WIDTH) * GAME_WIDTH; x < originX + CHUNK_SIZE; x += GAME_WIDTH) {
+                g.drawImage(background, x - originX, y - originY, null);
+            }
+        }
+        for (int j = firstRow; j < lastRow; j++) {
+            for (int i = firstCol; i < lastCol; i++) {
+                int index = level.getSpriteIndex(i, j);
+                g.drawImage(levelSprite[index], i * TILES_SIZE - originX, j * TILES_SIZE - originY,
+                        TILES_SIZE, TILES_SIZE, null);
+            }
+        }
+        g.dispose();
+
+        Graphics2D objects = null;
+        for (int j = firstRow; j < lastRow; j++) {
+            for (int i = firstCol; i < lastCol; i++) {
+                int index = level.getObjectSpriteIndex(i, j);
+                if (index > 0 && index < objectSprite.length) {
+                    if (objects == null) {
+                        chunk.objects = freeTranslucent.isEmpty()
+                                ? createImage(CHUNK_SIZE, CHUNK_SIZE, Transparency.TRANSLUCENT)
+                                : freeTranslucent.pop();
+                        objects = clear(chunk.objects);
+                    }
+                    objects.drawImage(objectSprite[index], i * TILES_SIZE - originX, j * TILES_SIZE - originY,
+                            TILES_SIZE, TILES_SIZE, null);
+                }
+            }
+        }
+        if (objects != null) {
+            objects.dispose();
+        }
+    }
+
+    private static Graphics2D clear(BufferedImage layer) {
+        Graphics2D g = layer.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, layer.getWidth(), layer.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+        return g;
+    }
+
+    // Images in the screen's own format can be blitted without any conversion
+    private static BufferedImage createImage(int width, int height, int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            int type = transparency == Transparency.OPAQUE
+                    ? BufferedImage.TYPE_INT_RGB
+                    : BufferedImage.TYPE_INT_ARGB_PRE;
+            return new BufferedImage(width, height, type);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, transparency);
+    }
+}
@@ -1,16 +1,23 @@
 package main.model.Levels;
 
 import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import main.controller.Game;
-import static main.controller.Game.GAME_HEIGHT;
-import static main.controller.Game.GAME_WIDTH;
-import static main.controller.Game.TILES_SIZE;
+import main.model.RenderSnapshot;
+import main.model.entities.TriggerSpike;
+import main.view.Camera;
 import utilities.LoadSave;
 
 public class LevelManager {
@@ -19,7 +26,17 @@ public class LevelManager {
     private BufferedImage[] objectSprite;
     private BufferedImage spawnTube;
     private BufferedImage deathSprite;
-    private List<Level> levels;
+    private BufferedImage background;
+    // Only used by the render thread
+    private LevelLayerCache layerCache;
+    // Chunks for the next level, baked on a loader thread while the transition covers the screen
+    private final AtomicReference<CompletableFuture<LevelLayerCache>> preparedLayerCache = new AtomicReference<>();
+    private LevelCatalog catalog;
+    private LevelRegistry levels;
+    private Level currentLevel;
+    private LevelHotReloader hotReloader;
+    // Levels reloaded by the hot reloader, waiting for the game thread to swap them in
+    private final Map<Integer, Level> reloadedLevels = new ConcurrentHashMap<>();
     private int currentLevelIndex = 0;
     private Set<Integer> completedLevels = new HashSet<>();
 
@@ -33,86 +50,152 @@ public class LevelManager {
     }
 
     private void buildAllLevels() {
-        levels = new ArrayList<>();
         spawnTube = LoadSave.getSpriteAtlas(LoadSave.SPAWN_TUBE);
         deathSprite = LoadSave.getSpriteAtlas(LoadSave.PLAYER_DEAD);
+        background = LoadSave.getSpriteAtlas(LoadSave.BG_DATA);
+        layerCache = new LevelLayerCache(levelSprite, objectSprite, background);
 
-        // Level 1
-        LevelConfigLoader.LevelConfig config1 = LevelConfigLoader.loadConfig("level1.txt");
-        Level level1 = new Level(
-                LoadSave.getLevelData(LoadSave.LEVEL_ONE_DATA),
-                LoadSave.getLevelObstacleData(LoadSave.LEVEL_ONE_OBSTACLE_DATA),
-                LoadSave.getLevelObjData(LoadSave.LEVEL_ONE_OBJ_DATA),
-                config1.spawnX, config1.spawnY);
-        LevelConfigLoader.applyConfig(level1, config1, levelSprite, objectSprite, spawnTube);
-        level1.setAudioControllerForPlatforms(game.getAudioController());
-        levels.add(level1);
-
-        // Level 2
-        LevelConfigLoader.LevelConfig config2 = LevelConfigLoader.loadConfig("level2.txt");
-        Level level2 = new Level(
-                LoadSave.getLevelData(LoadSave.LEVEL_TWO_DATA),
-                LoadSave.getLevelObstacleData(LoadSave.LEVEL_TWO_OBSTACLE_DATA),
-                LoadSave.getLevelObjData(LoadSave.LEVEL_TWO_OBJ_DATA),
-                config2.spawnX, config2.spawnY);
-        LevelConfigLoader.applyConfig(level2, config2, levelSprite, objectSprite, spawnTube);
-        level2.setAudioControllerForPlatforms(game.getAudioController());
-        levels.add(level2);
-
-        // Level 3
-        LevelConfigLoader.LevelConfig config3 = LevelConfigLoader.loadConfig("level3.txt");
-        Level level3 = new Level(
-                LoadSave.getLevelData(LoadSave.LEVEL_THREE_DATA),
-                LoadSave.getLevelObstacleData(LoadSave.LEVEL_THREE_OBSTACLE_DATA),
-                LoadSave.getLevelObjData(LoadSave.LEVEL_THREE_OBJ_DATA),
-                config3.spawnX, config3.spawnY);
-        LevelConfigLoader.applyConfig(level3, config3, levelSprite, objectSprite, spawnTube);
-        level3.setAudioControllerForPlatforms(game.getAudioController());
-        levels.add(level3);
-
-        // Level 4
-        LevelConfigLoader.LevelConfig config4 = LevelConfigLoader.loadConfig("level4.txt");
-        Level level4 = new Level(
-                LoadSave.getLevelData(LoadSave.LEVEL_FOUR_DATA),
-                LoadSave.getLevelObstacleData(LoadSave.LEVEL_FOUR_OBSTACLE_DATA),
-                LoadSave.getLevelObjData(LoadSave.LEVEL_FOUR_OBJ_DATA),
-                config4.spawnX, config4.spawnY);
-        LevelConfigLoader.applyConfig(level4, config4, levelSprite, objectSprite, spawnTube);
-        level4.setAudioControllerForPlatforms(game.getAudioController());
-        levels.add(level4);
-
-        // Level 5
-        LevelConfigLoader.LevelConfig config5 = LevelConfigLoader.loadConfig("level5.txt");
-        Level level5 = new Level(
-                LoadSave.getLevelData(LoadSave.LEVEL_FIVE_DATA),
-                LoadSave.getLevelObstacleData(LoadSave.LEVEL_FIVE_OBSTACLE_DATA),
-                LoadSave.getLevelObjData(LoadSave.LEVEL_FIVE_OBJ_DATA),
-                config5.spawnX, config5.spawnY);
-        LevelConfigLoader.applyConfig(level5, config5, levelSprite, objectSprite, spawnTube);
-        level5.setAudioControllerForPlatforms(game.getAudioController());
-        levels.add(level5);
-
-        // Level 6
-        LevelConfigLoader.LevelConfig config6 = LevelConfigLoader.loadConfig("level6.txt");
-        Level level6 = new Level(
-                LoadSave.getLevelData(LoadSave.LEVEL_SIX_DATA),
-                LoadSave.getLevelObstacleData(LoadSave.LEVEL_SIX_OBSTACLE_DATA),
-                LoadSave.getLevelObjData(LoadSave.LEVEL_SIX_OBJ_DATA),
-                config6.spawnX, config6.spawnY);
-        LevelConfigLoader.applyConfig(level6, config6, levelSprite, objectSprite, spawnTube);
-        level6.setAudioControllerForPlatforms(game.getAudioController());
-        levels.add(level6);
-
-        // Level 7
-        LevelConfigLoader.LevelConfig config7 = LevelConfigLoader.loadConfig("level7.txt");
-        Level level7 = new Level(
-                LoadSave.getLevelData(LoadSave.LEVEL_SEVEN_DATA),
-                LoadSave.getLevelObstacleData(LoadSave.LEVEL_SEVEN_OBSTACLE_DATA),
-                LoadSave.getLevelObjData(LoadSave.LEVEL_SEVEN_OBJ_DATA),
-                config7.spawnX, config7.spawnY);
-        LevelConfigLoader.applyConfig(level7, config7, levelSprite, objectSprite, spawnTube);
-        level7.setAudioControllerForPlatforms(game.getAudioController());
-        levels.add(level7);
+        // Only the index is read here, level data is loaded when a level is first played
+        catalog = LevelCatalog.load();
+        if (LevelHotReloader.isEnabled()) {
+            startHotReload();
+        }
+        levels = new LevelRegistry(catalog.getLevels(), this::loadLevel);
+
+        // The first level is needed right away, the rest is loaded in the background as the player gets close
+        currentLevel = levels.get(0);
+        levels.prefetch(1);
+    }
+
+    private void startHotReload() {
+        LevelHotReloader reloader = new LevelHotReloader(LevelHotReloader.getDefaultDirectory(), catalog,
+                this::reloadLevel);
+        try {
+            reloader.start();
+            hotReloader = reloader;
+        } catch (IOException e) {
+            System.err.println("Level hot reload is off, could not watch the level files: " + e.getMessage());
+        }
+    }
+
+    // Runs on the hot reload thread. Levels that aren't loaded are left alone, they get read fresh when needed
+    private void reloadLevel(int index) {
+        if (!levels.isLoaded(index)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            reloadedLevels.put(index, loadLevel(catalog.get(index)));
+            System.out.println("Reloaded " + catalog.get(index).getName() + " in "
+                    + (System.nanoTime() - start) / 1000000 + "ms");
+        } catch (RuntimeException e) {
+            System.err.println("Could not reload " + catalog.get(index).getName() + ": " + e.getMessage());
+        }
+    }
+
+    // Swaps the reloaded levels in between ticks, the player stays where it is in the new version
+    private void applyReloadedLevels() {
+        if (reloadedLevels.isEmpty()) {
+            return;
+        }
+        for (Integer index : reloadedLevels.keySet()) {
+            Level level = reloadedLevels.remove(index);
+            if (level == null) {
+                continue;
+            }
+            if (!levels.replaceIfLoaded(index, level)) {
+                // Dropped since it was reloaded, it gets read fresh when it's needed again
+                continue;
+            }
+            if (index == currentLevelIndex) {
+                currentLevel = level;
+                game.getPlayer().setSpawnPoint(level.getSpawnX(), level.getSpawnY());
+                game.getPlayer().loadLvlData(level.getLevelData(), level.getCollisionMap());
+                game.getPlayer().setCurrentLevel(level);
+            }
+        }
+    }
+
+    // Runs on the level loader threads, so it must only read shared state
+    private Level loadLevel(LevelSource source) {
+        LevelFileCodec.LevelFile file = hotReloader != null ? readEditedLevel(source) : readCompiledLevel(source);
+        if (file == null) {
+            // No compiled version, build it from the PNGs and config file
+            file = new LevelFileCodec.LevelFile();
+            file.tiles = LoadSave.getLevelData(source.getTileFile());
+            file.obstacles = LoadSave.getLevelObstacleData(source.getObstacleFile(), file.tiles);
+            file.objects = LoadSave.getLevelObjData(source.getObjectFile(), file.tiles);
+            file.config = LevelConfigLoader.loadConfig(source.getConfigFile());
+        }
+        LevelConfigLoader.LevelConfig config = file.config;
+        Level level = new Level(file.tiles, file.obstacles, file.objects, config.spawnX, config.spawnY);
+        LevelConfigLoader.applyConfig(level, config, levelSprite, objectSprite, spawnTube);
+        level.setAudioControllerForPlatforms(game.getAudioController());
+        return level;
+    }
+
+    // A file that doesn't decode fails the load, a reload then keeps the level that is already there
+    private LevelFileCodec.LevelFile readEditedLevel(LevelSource source) {
+        try {
+            return hotReloader.readLevelFile(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private LevelFileCodec.LevelFile readCompiledLevel(LevelSource source) {
+        try {
+            return LevelFileCodec.readResource(source.getBinaryFile());
+        } catch (IOException e) {
+            System.err.println("Could not read " + source.getBinaryFile() + ", using the level sources: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Starts getting the next level ready in the background: loading it if the prefetch hasn't already, and
+     * baking the chunks around its spawn point. The level is switched to by {@link #loadNextLevel()} as usual,
+     * which only has to wait if the loading isn't done by then.
+     */
+    public void prepareNextLevel() {
+        int next = currentLevelIndex + 1;
+        if (next < levels.size()) {
+            preparedLayerCache.set(levels.prepare(next, this::bakeAroundSpawn));
+        }
+    }
+
+    // Runs on a loader thread, on a cache of its own that the render thread picks up once the level is shown
+    private LevelLayerCache bakeAroundSpawn(Level level) {
+        LevelLayerCache cache = new LevelLayerCache(levelSprite, objectSprite, background);
+        Camera camera = new Camera(Game.GAME_WIDTH, Game.GAME_HEIGHT);
+        camera.follow(level.getSpawnX(), level.getSpawnY(), level.getWidthInTiles() * Game.TILES_SIZE,
+                level.getHeightInTiles() * Game.TILES_SIZE);
+        cache.prepare(level, camera.getViewport());
+        return cache;
+    }
+
+    // Render thread. Switches to the prepared cache once its level is the one being drawn, if it isn't ready
+    // by then the current cache just bakes the chunks itself
+    private LevelLayerCache getLayerCache(Level level) {
+        CompletableFuture<LevelLayerCache> prepared = preparedLayerCache.get();
+        if (prepared != null && prepared.isDone()) {
+            LevelLayerCache cache = prepared.isCompletedExceptionally() ? null : prepared.join();
+            if (cache == null || cache.isBakedFor(level)) {
+                preparedLayerCache.compareAndSet(prepared, null);
+                if (cache != null) {
+                    layerCache = cache;
+                }
+            }
+        }
+        return layerCache;
+    }
+
+    private void changeLevel(int index) {
+        currentLevelIndex = index;
+        currentLevel = levels.get(index);
+        levels.prefetch(index + 1);
+        levels.retainAround(index);
     }
 
     private void importOutsideSprites() {
@@ -135,37 +218,39 @@ public class LevelManager {
         }
     }
 
+    /**
+     * Draws the visible part of the level.
+     *
+     * @param viewport visible area in level pixels, the graphics must already be translated to it
+     */
     //TODO move into view?
-    public void draw(Graphics g) {
-        BufferedImage img = LoadSave.getSpriteAtlas(LoadSave.BG_DATA);
-        g.drawImage(img, 0, 0, GAME_WIDTH, GAME_HEIGHT, null);
-
-        Level currentLevel = getCurrentLvl();
-        currentLevel.drawTriggerSpikes(g);
-
-        for (int j = 0; j < Game.TILES_IN_HEIGHT; j++) {
-            for (int i = 0; i < Game.TILES_IN_WIDTH; i++) {
-                int index = currentLevel.getSpriteIndex(i, j);
-                g.drawImage(levelSprite[index], i * TILES_SIZE, j * TILES_SIZE, TILES_SIZE, TILES_SIZE, null);
+    public void draw(Graphics g, RenderSnapshot snapshot, float alpha, Rectangle viewport) {
+        Level currentLevel = snapshot.getLevel();
+        LevelLayerCache cache = getLayerCache(currentLevel);
+        cache.drawBase(g, currentLevel, viewport);
+
+        // Trigger spikes come up from behind the tiles, so put the tiles back on top where they were drawn
+        currentLevel.drawTriggerSpikes(g, snapshot, alpha, viewport);
+        List<TriggerSpike> triggerSpikes = currentLevel.getTriggerSpikes();
+        int count = Math.min(snapshot.getTriggerSpikeCount(), triggerSpikes.size());
+        for (int i = 0; i < count; i++) {
+            Rectangle2D.Float hitbox = triggerSpikes.get(i).getModel().getHitbox();
+            int x = (int) snapshot.getTriggerSpikeX(i, alpha);
+            int y = (int) (snapshot.getTriggerSpikeY(i, alpha) - hitbox.height);
+            if (viewport.intersects(x, y, hitbox.width, hitbox.height * 2)) {
+                cache.redrawTiles(g, currentLevel, x, y, (int) hitbox.width, (int) (hitbox.height * 2));
             }
         }
 
-        currentLevel.drawPlatforms(g);
-        currentLevel.drawSpikes(g);
-        currentLevel.drawDeathSprites(g);
+        currentLevel.drawPlatforms(g, snapshot, alpha, viewport);
+        currentLevel.drawSpikes(g, viewport);
+        currentLevel.drawDeathSprites(g, snapshot, deathSprite, viewport);
     }
 
     //TODO move into view?
-    public void drawObjectLayer(Graphics g) {
-        Level currentLevel = getCurrentLvl();
-        for (int j = 0; j < Game.TILES_IN_HEIGHT; j++) {
-            for (int i = 0; i < Game.TILES_IN_WIDTH; i++) {
-                int index = currentLevel.getObjectSpriteIndex(i, j);
-                if (index > 0 && index < objectSprite.length) {
-                    g.drawImage(objectSprite[index], i * TILES_SIZE, j * TILES_SIZE, TILES_SIZE, TILES_SIZE, null);
-                }
-            }
-        }
+    public void drawObjectLayer(Graphics g, RenderSnapshot snapshot, Rectangle viewport) {
+        Level level = snapshot.getLevel();
+        getLayerCache(level).drawObjects(g, level, viewport);
     }
 
     public BufferedImage getDeathSprite() {
@@ -173,14 +258,18 @@ public class LevelManager {
     }
 
     public void update() {
+        applyReloadedLevels();
         getCurrentLvl().updatePlatforms(game.getPlayer());
         getCurrentLvl().updateTriggerSpikes(game.getPlayer());
         getCurrentLvl().updateSpawnPlatform();
     }
 
+    public LevelCatalog getCatalog() {
+        return catalog;
+    }
+
     public Level getCurrentLvl() {
-        //return levels.get(6); // For Testing TODO
-        return levels.get(currentLevelIndex);
+        return currentLevel;
     }
 
     public void loadNextLevel() {
@@ -188,7 +277,8 @@ public class LevelManager {
         markLevelCompleted(currentLevelIndex);
 
         if (currentLevelIndex < levels.size() - 1) {
-            currentLevelIndex++;
+            // Prefetched when this level started, so this normally doesn't wait on any I/O
+            changeLevel(currentLevelIndex + 1);
 
             if (game != null) {
                 game.reloadPlayerCurrentLevel();
@@ -229,13 +319,12 @@ public class LevelManager {
 
     public void setCurrentLevelIndex(int index) {
         if (index >= 0 && index < levels.size()) {
-            currentLevelIndex = index;
+            changeLevel(index);
         }
     }
 
     public void setLevelScore(int death) {
-        Level currLevel = levels.get(getCurrentLevelIndex());
-        currLevel.updateDeathScore(death);
+        currentLevel.updateDeathScore(death);
     }
 
     public BufferedImage getSprite(int tileId) {
@@ -246,6 +335,6 @@ public class LevelManager {
     }
 
     public void resetToFirstLevel() {
-        currentLevelIndex = 0;
+        changeLevel(0);
     }
 }
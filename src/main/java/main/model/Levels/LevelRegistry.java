@@ -0,0 +1,115 @@
+package main.model.Levels;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Loads levels on demand and keeps only the ones near the player in memory.
+ * Levels can be prefetched on a background executor so that switching to them later doesn't have to wait
+ * for the PNGs and config to be read. Levels that are dropped are simply loaded again the next time
+ * they are asked for.
+ */
+public class LevelRegistry {
+    private static final int LOADER_THREADS = 2;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final List<LevelSource> sources;
+    private final Function<LevelSource, Level> loader;
+    private final Map<Integer, CompletableFuture<Level>> levels = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "level-loader-" + THREAD_COUNT.incrementAndGet());
+        // Loading must never keep the game from exiting
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LevelRegistry(List<LevelSource> sources, Function<LevelSource, Level> loader) {
+        this.sources = sources;
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the level, loading it on the calling thread if nobody asked for it yet, or waiting for
+     * the background load to finish if it was prefetched but isn't done.
+     *
+     * @throws java.util.concurrent.CompletionException if loading failed, the next call tries again
+     */
+    public Level get(int index) {
+        CompletableFuture<Level> future = levels.get(index);
+        if (future == null) {
+            // A load that throws here leaves nothing in the map
+            future = levels.computeIfAbsent(index,
+                    i -> CompletableFuture.completedFuture(loader.apply(sources.get(i))));
+        }
+        return future.join();
+    }
+
+    /**
+     * Starts loading the level in the background, unless it is already loaded or loading.
+     * Indexes outside the registry are ignored.
+     */
+    public void prefetch(int index) {
+        if (index < 0 || index >= sources.size()) {
+            return;
+        }
+        loadAsync(index);
+    }
+
+    /**
+     * Loads the level in the background if it isn't loaded or loading yet, then runs the given work on it on
+     * one of the loader threads.
+     *
+     * @return the result of the work, completed exceptionally if loading the level failed
+     */
+    public <T> CompletableFuture<T> prepare(int index, Function<Level, T> work) {
+        return loadAsync(index).thenApplyAsync(work, executor);
+    }
+
+    private CompletableFuture<Level> loadAsync(int index) {
+        CompletableFuture<Level> future = levels.computeIfAbsent(index,
+                i -> CompletableFuture.supplyAsync(() -> loader.apply(sources.get(i)), executor));
+        // A failed load is dropped, so asking for the level again tries again instead of failing forever.
+        // Registered outside computeIfAbsent, a load that is already done runs this right away
+        future.whenComplete((level, error) -> {
+            if (error != null) {
+                levels.remove(index, future);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Puts a freshly loaded copy of a level in place of the one that is currently held. Checked and swapped in
+     * one step, so a level that {@link #retainAround} drops in the meantime isn't brought back.
+     *
+     * @return false if the level isn't loaded, nothing is changed then
+     */
+    public boolean replaceIfLoaded(int index, Level level) {
+        CompletableFuture<Level> replacement = CompletableFuture.completedFuture(level);
+        CompletableFuture<Level> result = levels.computeIfPresent(index,
+                (i, future) -> future.isDone() && !future.isCompletedExceptionally() ? replacement : future);
+        return result == replacement;
+    }
+
+    public boolean isLoaded(int index) {
+        CompletableFuture<Level> future = levels.get(index);
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    /**
+     * Drops every loaded level except the first one and the ones next to the given index.
+     */
+    public void retainAround(int index) {
+        levels.keySet().removeIf(i -> i != 0 && Math.abs(i - index) > 1);
+    }
+
+    public int size() {
+        return sources.size();
+    }
+}
@@ -0,0 +1,69 @@
+package main.model.Levels;
+
+/**
+ * Catalog entry for one level: its display name, size and the resource files it is built from.
+ * Holding one of these costs nothing, the files are only read once the level is loaded.
+ */
+public class LevelSource {
+    private final String name;
+    private final String tileFile;
+    private final String obstacleFile;
+    private final String objectFile;
+    private final String configFile;
+    private final String thumbnailFile;
+    private final int widthInTiles;
+    private final int heightInTiles;
+
+    public LevelSource(String name, String tileFile, String obstacleFile, String objectFile, String configFile,
+            String thumbnailFile, int widthInTiles, int heightInTiles) {
+        this.name = name;
+        this.tileFile = tileFile;
+        this.obstacleFile = obstacleFile;
+        this.objectFile = objectFile;
+        this.configFile = configFile;
+        this.thumbnailFile = thumbnailFile;
+        this.widthInTiles = widthInTiles;
+        this.heightInTiles = heightInTiles;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTileFile() {
+        return tileFile;
+    }
+
+    public String getObstacleFile() {
+        return obstacleFile;
+    }
+
+    public String getObjectFile() {
+        return objectFile;
+    }
+
+    public String getConfigFile() {
+        return configFile;
+    }
+
+    public String getThumbnailFile() {
+        return thumbnailFile;
+    }
+
+    public int getWidthInTiles() {
+        return widthInTiles;
+    }
+
+    public int getHeightInTiles() {
+        return heightInTiles;
+    }
+
+    /**
+     * Name of the compiled level file, e.g. level1.lvl next to level1.txt.
+     */
+    public String getBinaryFile() {
+        int dot = configFile.lastIndexOf('.');
+        String baseName = dot >= 0 ? configFile.substring(0, dot) : configFile;
+        return baseName + LevelFileCodec.EXTENSION;
+    }
+}
@@ -0,0 +1,111 @@
+package main.model.Levels;
+
+/**
+ * Packed copy of everything in a level that moves during play: the trigger platforms, trigger spikes, moving
+ * platforms and the spawn platform. Each entity gets a slot with four floats (its position and the position it
+ * had at the start of the tick), a byte of flags and a timer, kept in one array per kind instead of one object
+ * per entity.
+ * Taken with {@link Level#captureState()} and put back with {@link Level#restoreState(LevelState)}.
+ * Timers are stored as how far into its current wait an entity is, so a restored state picks up the wait
+ * where it was left instead of having it run out while the state was stored.
+ */
+public final class LevelState {
+    private static final int FLOATS_PER_SLOT = 4;
+
+    private final int platformCount;
+    private final int spikeCount;
+    private final int movingPlatformCount;
+    private final boolean hasSpawnPlatform;
+
+    private final float[] positions;
+    private final byte[] flags;
+    private final long[] timers;
+
+    public LevelState(int platformCount, int spikeCount, int movingPlatformCount, boolean hasSpawnPlatform) {
+        this.platformCount = platformCount;
+        this.spikeCount = spikeCount;
+        this.movingPlatformCount = movingPlatformCount;
+        this.hasSpawnPlatform = hasSpawnPlatform;
+        int slots = platformCount + spikeCount + movingPlatformCount + (hasSpawnPlatform ? 1 : 0);
+        positions = new float[slots * FLOATS_PER_SLOT];
+        flags = new byte[slots];
+        timers = new long[slots];
+    }
+
+    public int getPlatformCount() {
+        return platformCount;
+    }
+
+    public int getSpikeCount() {
+        return spikeCount;
+    }
+
+    public int getMovingPlatformCount() {
+        return movingPlatformCount;
+    }
+
+    public boolean hasSpawnPlatform() {
+        return hasSpawnPlatform;
+    }
+
+    // Slots are laid out trigger platforms first, then trigger spikes, moving platforms and the spawn platform
+
+    public int platformSlot(int index) {
+        return index;
+    }
+
+    public int spikeSlot(int index) {
+        return platformCount + index;
+    }
+
+    public int movingPlatformSlot(int index) {
+        return platformCount + spikeCount + index;
+    }
+
+    public int spawnPlatformSlot() {
+        return platformCount + spikeCount + movingPlatformCount;
+    }
+
+    public void setPosition(int slot, float x, float y, float prevX, float prevY) {
+        int i = slot * FLOATS_PER_SLOT;
+        positions[i] = x;
+        positions[i + 1] = y;
+        positions[i + 2] = prevX;
+        positions[i + 3] = prevY;
+    }
+
+    public float getX(int slot) {
+        return positions[slot * FLOATS_PER_SLOT];
+    }
+
+    public float getY(int slot) {
+        return positions[slot * FLOATS_PER_SLOT + 1];
+    }
+
+    public float getPrevX(int slot) {
+        return positions[slot * FLOATS_PER_SLOT + 2];
+    }
+
+    public float getPrevY(int slot) {
+        return positions[slot * FLOATS_PER_SLOT + 3];
+    }
+
+    public void setFlags(int slot, int value) {
+        flags[slot] = (byte) value;
+    }
+
+    public int getFlags(int slot) {
+        return flags[slot];
+    }
+
+    /**
+     * @param elapsedMs how long the entity has been in its current wait
+     */
+    public void setTimer(int slot, long elapsedMs) {
+        timers[slot] = elapsedMs;
+    }
+
+    public long getTimer(int slot) {
+        return timers[slot];
+    }
+}
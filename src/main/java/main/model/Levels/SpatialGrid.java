@@ -0,0 +1,160 @@
+package main.model.Levels;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid broadphase over the level area. Entities are stored by integer id (their index in the
+ * level's list) in every cell their bounds touch, so a query only has to look at the few cells around
+ * the player instead of every entity in the level.
+ * Bounds outside the level are clamped to the edge cells, which keeps queries conservative.
+ * Not thread safe, the level only touches it from the game thread.
+ */
+public class SpatialGrid {
+    private static final int INITIAL_CELL_CAPACITY = 4;
+
+    private final float cellSize;
+    private final int cols;
+    private final int rows;
+    private final int[][] cells;
+    private final int[] cellCounts;
+
+    // Cell range each entity is currently stored in, indexed by id. minCol < 0 means not stored
+    private int[] minCols = new int[0];
+    private int[] minRows = new int[0];
+    private int[] maxCols = new int[0];
+    private int[] maxRows = new int[0];
+
+    // Query results, deduplicated with a per-query stamp instead of a set
+    private int[] stamps = new int[0];
+    private int stamp;
+    private int[] results = new int[16];
+    private int resultCount;
+
+    public SpatialGrid(float width, float height, float cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new int[cols * rows][INITIAL_CELL_CAPACITY];
+        this.cellCounts = new int[cols * rows];
+    }
+
+    /**
+     * Stores or moves an entity. Only touches the cells if its cell range actually changed.
+     */
+    public void update(int id, float x, float y, float width, float height) {
+        ensureIdCapacity(id);
+        int minCol = toCol(x);
+        int minRow = toRow(y);
+        int maxCol = toCol(x + width);
+        int maxRow = toRow(y + height);
+        if (minCols[id] == minCol && minRows[id] == minRow && maxCols[id] == maxCol && maxRows[id] == maxRow) {
+            return;
+        }
+        if (minCols[id] >= 0) {
+            forEachCell(id, false);
+        }
+        minCols[id] = minCol;
+        minRows[id] = minRow;
+        maxCols[id] = maxCol;
+        maxRows[id] = maxRow;
+        forEachCell(id, true);
+    }
+
+    /**
+     * Collects the ids of all entities stored in the cells the given area touches.
+     * Results are sorted by id and stay valid until the next query.
+     *
+     * @return number of results, read them with {@link #getResult(int)}
+     */
+    public int query(float x, float y, float width, float height) {
+        resultCount = 0;
+        if (++stamp == 0) {
+            // Wrapped around, old stamps could collide with the new one
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        int minCol = toCol(x);
+        int maxCol = toCol(x + width);
+        int maxRow = toRow(y + height);
+        for (int row = toRow(y); row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                int cell = row * cols + col;
+                int[] ids = cells[cell];
+                for (int i = 0; i < cellCounts[cell]; i++) {
+                    int id = ids[i];
+                    if (stamps[id] != stamp) {
+                        stamps[id] = stamp;
+                        addResult(id);
+                    }
+                }
+            }
+        }
+        // Callers rely on list order, e.g. the first platform found wins
+        Arrays.sort(results, 0, resultCount);
+        return resultCount;
+    }
+
+    public int getResult(int index) {
+        return results[index];
+    }
+
+    private void forEachCell(int id, boolean insert) {
+        for (int row = minRows[id]; row <= maxRows[id]; row++) {
+            for (int col = minCols[id]; col <= maxCols[id]; col++) {
+                if (insert) {
+                    insert(row * cols + col, id);
+                } else {
+                    remove(row * cols + col, id);
+                }
+            }
+        }
+    }
+
+    private void insert(int cell, int id) {
+        if (cellCounts[cell] == cells[cell].length) {
+            cells[cell] = Arrays.copyOf(cells[cell], cells[cell].length * 2);
+        }
+        cells[cell][cellCounts[cell]++] = id;
+    }
+
+    private void remove(int cell, int id) {
+        int[] ids = cells[cell];
+        int count = cellCounts[cell];
+        for (int i = 0; i < count; i++) {
+            if (ids[i] == id) {
+                ids[i] = ids[count - 1];
+                cellCounts[cell] = count - 1;
+                return;
+            }
+        }
+    }
+
+    private void addResult(int id) {
+        if (resultCount == results.length) {
+            results = Arrays.copyOf(results, results.length * 2);
+        }
+        results[resultCount++] = id;
+    }
+
+    private void ensureIdCapacity(int id) {
+        if (id < minCols.length) {
+            return;
+        }
+        int oldLength = minCols.length;
+        int newLength = Math.max(id + 1, oldLength * 2);
+        minCols = Arrays.copyOf(minCols, newLength);
+        minRows = Arrays.copyOf(minRows, newLength);
+        maxCols = Arrays.copyOf(maxCols, newLength);
+        maxRows = Arrays.copyOf(maxRows, newLength);
+        stamps = Arrays.copyOf(stamps, newLength);
+        Arrays.fill(minCols, oldLength, newLength, -1);
+    }
+
+    private int toCol(float x) {
+        return Math.min(cols - 1, Math.max(0, (int) Math.floor(x / cellSize)));
+    }
+
+    private int toRow(float y) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor(y / cellSize)));
+    }
+}
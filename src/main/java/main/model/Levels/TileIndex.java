@@ -0,0 +1,65 @@
+package main.model.Levels;
+
+/**
+ * Positions of every tile id in a tile grid, built in one pass so that looking up all tiles with a given id
+ * doesn't mean scanning the whole grid again.
+ * Positions are kept in one flat array grouped by tile id, each group in row-major order, the same order
+ * a scan of the grid would find them in.
+ */
+public class TileIndex {
+    private final int width;
+    // Group of each tile id is positions[offsets[id]] up to positions[offsets[id + 1]]
+    private final int[] offsets;
+    private final int[] positions;
+
+    public TileIndex(TileLayer tiles) {
+        this.width = tiles.getWidth();
+        int size = width * tiles.getHeight();
+
+        int maxId = 0;
+        for (int i = 0; i < size; i++) {
+            maxId = Math.max(maxId, tiles.get(i));
+        }
+
+        // Counting sort: count every id, turn the counts into start offsets, then drop the positions in
+        offsets = new int[maxId + 2];
+        for (int i = 0; i < size; i++) {
+            offsets[tiles.get(i) + 1]++;
+        }
+        for (int id = 0; id <= maxId; id++) {
+            offsets[id + 1] += offsets[id];
+        }
+        positions = new int[offsets[maxId + 1]];
+        int[] next = new int[maxId + 1];
+        System.arraycopy(offsets, 0, next, 0, maxId + 1);
+        for (int i = 0; i < size; i++) {
+            positions[next[tiles.get(i)]++] = i;
+        }
+    }
+
+    /**
+     * @return how many tiles have the given id
+     */
+    public int count(int tileId) {
+        if (tileId < 0 || tileId + 1 >= offsets.length) {
+            return 0;
+        }
+        return offsets[tileId + 1] - offsets[tileId];
+    }
+
+    /**
+     * @param tileId tile id to look up
+     * @param n      which of the {@link #count} tiles with that id, in row-major order
+     * @return tile column of that tile
+     */
+    public int getX(int tileId, int n) {
+        return positions[offsets[tileId] + n] % width;
+    }
+
+    /**
+     * @return tile row of the n-th tile with the given id, see {@link #getX}
+     */
+    public int getY(int tileId, int n) {
+        return positions[offsets[tileId] + n] / width;
+    }
+}
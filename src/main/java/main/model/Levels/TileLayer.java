@@ -0,0 +1,79 @@
+package main.model.Levels;
+
+/**
+ * One layer of tile ids, stored row by row in a flat byte array.
+ * Tile ids never go above 80, so a byte per tile is enough, and a flat array keeps neighbouring tiles
+ * next to each other in memory instead of spread over one array per row.
+ */
+public class TileLayer {
+    private final int width;
+    private final int height;
+    private final byte[] tiles;
+
+    /**
+     * Creates an empty layer, every tile is 0.
+     */
+    public TileLayer(int width, int height) {
+        this(width, height, new byte[width * height]);
+    }
+
+    /**
+     * Wraps existing tile data without copying it.
+     *
+     * @param tiles width * height tile ids, row by row
+     */
+    public TileLayer(int width, int height, byte[] tiles) {
+        if (tiles.length != width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " tiles but got " + tiles.length);
+        }
+        this.width = width;
+        this.height = height;
+        this.tiles = tiles;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the tile id at the given tile column and row
+     */
+    public int get(int x, int y) {
+        return tiles[y * width + x] & 0xFF;
+    }
+
+    /**
+     * @return the tile id at a row-major index, y * width + x
+     */
+    public int get(int index) {
+        return tiles[index] & 0xFF;
+    }
+
+    public void set(int x, int y, int tileId) {
+        tiles[y * width + x] = (byte) tileId;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public boolean isSameSize(TileLayer other) {
+        return width == other.width && height == other.height;
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height;
+    }
+
+    /**
+     * The backing array, row by row. Changes to it show up in the layer.
+     */
+    public byte[] getData() {
+        return tiles;
+    }
+}
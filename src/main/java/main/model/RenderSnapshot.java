@@ -0,0 +1,254 @@
+package main.model;
+
+import java.util.List;
+
+import main.model.Levels.Level;
+import main.model.Levels.LevelManager;
+import main.model.entities.DeathSprite;
+import main.model.entities.Player;
+import main.model.entities.PlayerModel;
+import main.model.entities.SpawnPlatform;
+import main.model.entities.TriggerPlatform;
+import main.model.entities.TriggerSpike;
+
+/**
+ * Copy of everything that moves in the world, taken by the game thread at the end of a tick.
+ * Once published through {@link RenderSnapshotBuffer} it is only read, never written, so the
+ * renderer can use it without racing the simulation.
+ * Positions of the player, trigger platforms and trigger spikes are stored for both the
+ * previous and the current tick so the renderer can interpolate between them.
+ */
+public class RenderSnapshot {
+    private boolean empty = true;
+    private volatile boolean fresh = false;
+
+    // Game state
+    private Level level;
+    private int levelIndex;
+    private boolean paused;
+    private boolean inTransition;
+    private float transitionScale;
+    private int deathCount;
+
+    // Player
+    private float playerPrevX;
+    private float playerPrevY;
+    private float playerX;
+    private float playerY;
+    private float playerWidth;
+    private float playerHeight;
+    private boolean playerDead;
+    private int playerAction;
+    private int playerAniIndex;
+
+    // Trigger platforms and spikes, stored as x/y pairs in the same order as the level's lists
+    private int platformCount;
+    private float[] platformPrev = new float[0];
+    private float[] platformPos = new float[0];
+    private int triggerSpikeCount;
+    private float[] triggerSpikePrev = new float[0];
+    private float[] triggerSpikePos = new float[0];
+
+    // Spawn platform
+    private boolean hasSpawnPlatform;
+    private float spawnPlatformY;
+
+    // Death sprites, stored as x/y pairs
+    private int deathSpriteCount;
+    private float[] deathSpritePos = new float[0];
+
+    /**
+     * Copies the dynamic state out of the model. Must only be called from the game thread,
+     * on a snapshot that is not published.
+     */
+    public void capture(GameModel model) {
+        LevelManager levelManager = model.getLevelManager();
+        Level level = levelManager.getCurrentLvl();
+
+        this.level = level;
+        levelIndex = levelManager.getCurrentLevelIndex();
+        paused = model.isPaused();
+        inTransition = model.isInTransition();
+        transitionScale = model.getTransitionScale();
+
+        Player player = model.getPlayer();
+        PlayerModel playerModel = player.getModel();
+        deathCount = player.getDeathCount();
+        playerPrevX = playerModel.getPrevHitboxX();
+        playerPrevY = playerModel.getPrevHitboxY();
+        playerX = playerModel.getHitbox().x;
+        playerY = playerModel.getHitbox().y;
+        playerWidth = playerModel.getHitbox().width;
+        playerHeight = playerModel.getHitbox().height;
+        playerDead = playerModel.isDead();
+        playerAction = playerModel.getPlayerAction();
+        playerAniIndex = playerModel.getAniIndex();
+
+        List<TriggerPlatform> platforms = level.getTriggerPlatforms();
+        platformCount = platforms.size();
+        platformPrev = ensureCapacity(platformPrev, platformCount * 2);
+        platformPos = ensureCapacity(platformPos, platformCount * 2);
+        for (int i = 0; i < platformCount; i++) {
+            TriggerPlatform platform = platforms.get(i);
+            platformPrev[i * 2] = platform.getModel().getPrevHitboxX();
+            platformPrev[i * 2 + 1] = platform.getModel().getPrevHitboxY();
+            platformPos[i * 2] = platform.getHitbox().x;
+            platformPos[i * 2 + 1] = platform.getHitbox().y;
+        }
+
+        List<TriggerSpike> spikes = level.getTriggerSpikes();
+        triggerSpikeCount = spikes.size();
+        triggerSpikePrev = ensureCapacity(triggerSpikePrev, triggerSpikeCount * 2);
+        triggerSpikePos = ensureCapacity(triggerSpikePos, triggerSpikeCount * 2);
+        for (int i = 0; i < triggerSpikeCount; i++) {
+            TriggerSpike spike = spikes.get(i);
+            triggerSpikePrev[i * 2] = spike.getModel().getPrevHitboxX();
+            triggerSpikePrev[i * 2 + 1] = spike.getModel().getPrevHitboxY();
+            triggerSpikePos[i * 2] = spike.getHitbox().x;
+            triggerSpikePos[i * 2 + 1] = spike.getHitbox().y;
+        }
+
+        SpawnPlatform spawnPlatform = level.getSpawnPlatform();
+        hasSpawnPlatform = spawnPlatform != null;
+        spawnPlatformY = hasSpawnPlatform ? spawnPlatform.getHitbox().y : 0;
+
+        List<DeathSprite> deathSprites = level.getDeathSprites();
+        deathSpriteCount = deathSprites.size();
+        deathSpritePos = ensureCapacity(deathSpritePos, deathSpriteCount * 2);
+        for (int i = 0; i < deathSpriteCount; i++) {
+            DeathSprite sprite = deathSprites.get(i);
+            deathSpritePos[i * 2] = sprite.getHitbox().x;
+            deathSpritePos[i * 2 + 1] = sprite.getHitbox().y;
+        }
+
+        empty = false;
+    }
+
+    // Only grows, so steady state captures don't allocate
+    private static float[] ensureCapacity(float[] array, int size) {
+        return array.length >= size ? array : new float[Math.max(size, array.length * 2)];
+    }
+
+    private static float lerp(float from, float to, float alpha) {
+        return from + (to - from) * alpha;
+    }
+
+    // Freshness flag used by RenderSnapshotBuffer to tell new snapshots from already consumed ones
+    boolean isFresh() {
+        return fresh;
+    }
+
+    void setFresh(boolean fresh) {
+        this.fresh = fresh;
+    }
+
+    /**
+     * True until the first capture, there is nothing to render yet.
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * The level the snapshot was taken in. Draw this one rather than looking the level up by index, a lookup
+     * could load a level the game thread has already moved away from.
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    public int getLevelIndex() {
+        return levelIndex;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public boolean isInTransition() {
+        return inTransition;
+    }
+
+    public float getTransitionScale() {
+        return transitionScale;
+    }
+
+    public int getDeathCount() {
+        return deathCount;
+    }
+
+    public float getPlayerX(float alpha) {
+        return lerp(playerPrevX, playerX, alpha);
+    }
+
+    public float getPlayerY(float alpha) {
+        return lerp(playerPrevY, playerY, alpha);
+    }
+
+    public float getPlayerWidth() {
+        return playerWidth;
+    }
+
+    public float getPlayerHeight() {
+        return playerHeight;
+    }
+
+    /**
+     * True while the player waits to respawn, its position is meaningless then.
+     */
+    public boolean isPlayerDead() {
+        return playerDead;
+    }
+
+    public int getPlayerAction() {
+        return playerAction;
+    }
+
+    public int getPlayerAniIndex() {
+        return playerAniIndex;
+    }
+
+    public int getPlatformCount() {
+        return platformCount;
+    }
+
+    public float getPlatformX(int index, float alpha) {
+        return lerp(platformPrev[index * 2], platformPos[index * 2], alpha);
+    }
+
+    public float getPlatformY(int index, float alpha) {
+        return lerp(platformPrev[index * 2 + 1], platformPos[index * 2 + 1], alpha);
+    }
+
+    public int getTriggerSpikeCount() {
+        return triggerSpikeCount;
+    }
+
+    public float getTriggerSpikeX(int index, float alpha) {
+        return lerp(triggerSpikePrev[index * 2], triggerSpikePos[index * 2], alpha);
+    }
+
+    public float getTriggerSpikeY(int index, float alpha) {
+        return lerp(triggerSpikePrev[index * 2 + 1], triggerSpikePos[index * 2 + 1], alpha);
+    }
+
+    public boolean hasSpawnPlatform() {
+        return hasSpawnPlatform;
+    }
+
+    public float getSpawnPlatformY() {
+        return spawnPlatformY;
+    }
+
+    public int getDeathSpriteCount() {
+        return deathSpriteCount;
+    }
+
+    public float getDeathSpriteX(int index) {
+        return deathSpritePos[index * 2];
+    }
+
+    public float getDeathSpriteY(int index) {
+        return deathSpritePos[index * 2 + 1];
+    }
+}
@@ -0,0 +1,38 @@
+package main.model;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands render snapshots from the game thread to the render thread without locks.
+ * Three snapshots rotate between the writer (back), the exchange slot (ready) and the reader (front),
+ * so both sides always own the snapshot they are working on and nothing is allocated per tick.
+ */
+public class RenderSnapshotBuffer {
+    private final AtomicReference<RenderSnapshot> ready = new AtomicReference<>(new RenderSnapshot());
+    // Only touched by the game thread
+    private RenderSnapshot back = new RenderSnapshot();
+    // Only touched by the render thread
+    private RenderSnapshot front = new RenderSnapshot();
+
+    /**
+     * Captures the model into the back snapshot and swaps it in as the latest one.
+     * Called by the game thread at the end of every tick.
+     */
+    public void publish(GameModel model) {
+        back.capture(model);
+        back.setFresh(true);
+        back = ready.getAndSet(back);
+    }
+
+    /**
+     * Returns the most recently published snapshot. If nothing new was published since the last call,
+     * the same snapshot is returned again. Called by the render thread.
+     */
+    public RenderSnapshot acquireLatest() {
+        if (ready.get().isFresh()) {
+            front = ready.getAndSet(front);
+            front.setFresh(false);
+        }
+        return front;
+    }
+}
@@ -3,7 +3,11 @@ package main.model.entities;
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
 
+import main.model.Levels.LevelState;
+
 public class MovingPlatform extends Entity {
+    // Direction bit in a LevelState slot
+    private static final int MOVING_TO_END = 1;
 
     private float startX;
     private float startY;
@@ -57,6 +61,25 @@ public class MovingPlatform extends Entity {
         }
     }
 
+    /**
+     * Writes the position and direction into a slot of a level state.
+     */
+    public void saveState(LevelState state, int slot) {
+        state.setPosition(slot, hitbox.x, hitbox.y, hitbox.x, hitbox.y);
+        state.setFlags(slot, movingToEnd ? MOVING_TO_END : 0);
+    }
+
+    /**
+     * Puts back what {@link #saveState} wrote.
+     */
+    public void restoreState(LevelState state, int slot) {
+        hitbox.x = state.getX(slot);
+        hitbox.y = state.getY(slot);
+        x = hitbox.x;
+        y = hitbox.y;
+        movingToEnd = (state.getFlags(slot) & MOVING_TO_END) != 0;
+    }
+
     public void setSprite(BufferedImage sprite) {
         this.sprite = sprite;
     }
@@ -5,7 +5,14 @@ import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 
+import main.model.Levels.LevelState;
+
 public class PlatformModel {
+    // Movement state bits in a LevelState slot
+    private static final int TRIGGERED = 1;
+    private static final int REACHED_TARGET = 2;
+    private static final int MOVING_TO_TARGET = 4;
+    private static final int WAITING_AT_TARGET = 8;
 
     // Position and movement
     private float x;
@@ -14,6 +21,10 @@ public class PlatformModel {
     private int height;
     private Rectangle2D.Float hitbox;
 
+    // Hitbox position at the start of the current tick
+    private float prevHitboxX;
+    private float prevHitboxY;
+
     private float startX;
     private float startY;
     private float targetX;
@@ -62,6 +73,7 @@ public class PlatformModel {
         this.width = width;
         this.height = height;
         this.hitbox = new Rectangle2D.Float(x, y, width, height);
+        savePreviousPosition();
 
         this.startX = x;
         this.startY = y;
@@ -194,4 +206,44 @@ public class PlatformModel {
         hitbox.x += deltaX;
         hitbox.y += deltaY;
     }
+
+    // Previous tick position, used to interpolate when rendering
+    public void savePreviousPosition() {
+        prevHitboxX = hitbox.x;
+        prevHitboxY = hitbox.y;
+    }
+
+    public float getPrevHitboxX() {
+        return prevHitboxX;
+    }
+
+    public float getPrevHitboxY() {
+        return prevHitboxY;
+    }
+
+    /**
+     * Writes the position and movement state into a slot of a level state.
+     */
+    public void saveState(LevelState state, int slot, long now) {
+        state.setPosition(slot, hitbox.x, hitbox.y, prevHitboxX, prevHitboxY);
+        state.setFlags(slot, (triggered ? TRIGGERED : 0) | (reachedTarget ? REACHED_TARGET : 0)
+                | (movingToTarget ? MOVING_TO_TARGET : 0) | (waitingAtTarget ? WAITING_AT_TARGET : 0));
+        state.setTimer(slot, waitingAtTarget ? now - waitStartTime : 0);
+    }
+
+    /**
+     * Puts back what {@link #saveState} wrote.
+     */
+    public void restoreState(LevelState state, int slot, long now) {
+        hitbox.x = state.getX(slot);
+        hitbox.y = state.getY(slot);
+        prevHitboxX = state.getPrevX(slot);
+        prevHitboxY = state.getPrevY(slot);
+        int flags = state.getFlags(slot);
+        triggered = (flags & TRIGGERED) != 0;
+        reachedTarget = (flags & REACHED_TARGET) != 0;
+        movingToTarget = (flags & MOVING_TO_TARGET) != 0;
+        waitingAtTarget = (flags & WAITING_AT_TARGET) != 0;
+        waitStartTime = now - state.getTimer(slot);
+    }
 }
@@ -6,6 +6,8 @@ import java.awt.image.BufferedImage;
 
 import main.Game;
 import main.controller.entities.PlayerController;
+import main.model.Levels.CollisionMap;
+import main.model.Levels.TileLayer;
 import main.model.entities.PlayerModel;
 import main.observerEvents.PlayerEventListener;
 import main.view.entities.PlayerRenderer;
@@ -50,8 +52,8 @@ public class Player extends Entity {
         controller.resetLevelEnd();
     }
 
-    public void render(Graphics g) {
-        renderer.render(g);
+    public void render(Graphics g, float hitboxX, float hitboxY, int playerAction, int aniIndex) {
+        renderer.render(g, hitboxX, hitboxY, playerAction, aniIndex);
         //drawHitbox(g); // Optional debug rendering
     }
 
@@ -69,8 +71,9 @@ public class Player extends Entity {
         return animations;
     }
 
-    public void loadLvlData(int[][] lvlData) {
+    public void loadLvlData(TileLayer lvlData, CollisionMap collisionMap) {
         model.setLvlData(lvlData);
+        model.setCollisionMap(collisionMap);
         // Check if player should be in air based on level data
         // This logic is now handled in the controller
     }
@@ -85,6 +88,10 @@ public class Player extends Entity {
         // Reset state - handled by controller
     }
 
+    public boolean isDead() {
+        return model.isDead();
+    }
+
     public int getDeathCount() {
         return controller.getDeathCount();
     }
@@ -98,6 +105,10 @@ public class Player extends Entity {
         return model.getHitbox();
     }
 
+    public PlayerModel getModel() {
+        return model;
+    }
+
     public void resetDirBooleans() {
         model.setLeft(false);
         model.setRight(false);
@@ -3,6 +3,8 @@ package main.model.entities;
 import java.awt.geom.Rectangle2D;
 
 import main.Game;
+import main.model.Levels.CollisionMap;
+import main.model.Levels.TileLayer;
 
 public class PlayerModel {
 
@@ -16,6 +18,10 @@ public class PlayerModel {
     private int height;
     private Rectangle2D.Float hitbox;
 
+    // Hitbox position at the start of the current tick
+    private float prevHitboxX;
+    private float prevHitboxY;
+
     // Animation state
     private int aniTick;
     private int aniIndex;
@@ -38,7 +44,8 @@ public class PlayerModel {
     private boolean inAir = false;
 
     // Level and collision data
-    private int[][] lvlData;
+    private TileLayer lvlData;
+    private CollisionMap collisionMap;
 
     // Rendering offsets
     private float xDrawOffset = 9.5f * Game.SCALE;
@@ -60,6 +67,7 @@ public class PlayerModel {
         this.width = width;
         this.height = height;
         this.hitbox = new Rectangle2D.Float(x, y, 12 * Game.SCALE, 22 * Game.SCALE);
+        savePreviousPosition();
         this.spawnX = x;
         this.spawnY = y;
         this.playerAction = utilz.Constants.PlayerConstants.IDLE_RIGHT;
@@ -129,8 +137,11 @@ public class PlayerModel {
     public boolean isInAir() { return inAir; }
     public void setInAir(boolean inAir) { this.inAir = inAir; }
 
-    public int[][] getLvlData() { return lvlData; }
-    public void setLvlData(int[][] lvlData) { this.lvlData = lvlData; }
+    public TileLayer getLvlData() { return lvlData; }
+    public void setLvlData(TileLayer lvlData) { this.lvlData = lvlData; }
+
+    public CollisionMap getCollisionMap() { return collisionMap; }
+    public void setCollisionMap(CollisionMap collisionMap) { this.collisionMap = collisionMap; }
 
     public float getXDrawOffset() { return xDrawOffset; }
     public void setXDrawOffset(float xDrawOffset) { this.xDrawOffset = xDrawOffset; }
@@ -162,10 +173,26 @@ public class PlayerModel {
     public void setHitboxPosition(float x, float y) {
         hitbox.x = x;
         hitbox.y = y;
+        // Teleports should not be interpolated
+        savePreviousPosition();
     }
 
     public void moveHitbox(float deltaX, float deltaY) {
         hitbox.x += deltaX;
         hitbox.y += deltaY;
     }
+
+    // Previous tick position, used to interpolate when rendering
+    public void savePreviousPosition() {
+        prevHitboxX = hitbox.x;
+        prevHitboxY = hitbox.y;
+    }
+
+    public float getPrevHitboxX() {
+        return prevHitboxX;
+    }
+
+    public float getPrevHitboxY() {
+        return prevHitboxY;
+    }
 }
@@ -3,8 +3,14 @@ package main.model.entities;
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
 
+import main.model.Levels.LevelState;
+
 public class SpawnPlatform extends Entity {
     private static final long WAIT_AT_BOTTOM_MS = 300;
+    // Animation state bits in a LevelState slot
+    private static final int LOWERING = 1;
+    private static final int RAISING = 2;
+    private static final int AT_BOTTOM = 4;
 
     private float startY;
     private float loweredY;
@@ -59,12 +65,12 @@ public class SpawnPlatform extends Entity {
         return atBottom || raising;
     }
 
-    public void render(Graphics g) {
+    public void render(Graphics g, float hitboxY) {
         if (sprite != null) {
-            g.drawImage(sprite, (int) hitbox.x, (int) hitbox.y, (int) hitbox.width, (int) hitbox.height, null);
+            g.drawImage(sprite, (int) hitbox.x, (int) hitboxY, (int) hitbox.width, (int) hitbox.height, null);
         } else {
             g.setColor(java.awt.Color.CYAN);
-            g.fillRect((int) hitbox.x, (int) hitbox.y, (int) hitbox.width, (int) hitbox.height);
+            g.fillRect((int) hitbox.x, (int) hitboxY, (int) hitbox.width, (int) hitbox.height);
         }
     }
 
@@ -72,11 +78,25 @@ public class SpawnPlatform extends Entity {
         return lowering || atBottom || raising;
     }
 
-    public void reset() {
-        hitbox.y = startY;
-        lowering = false;
-        raising = false;
-        atBottom = false;
+    /**
+     * Writes the position and animation state into a slot of a level state.
+     */
+    public void saveState(LevelState state, int slot, long now) {
+        state.setPosition(slot, hitbox.x, hitbox.y, hitbox.x, hitbox.y);
+        state.setFlags(slot, (lowering ? LOWERING : 0) | (raising ? RAISING : 0) | (atBottom ? AT_BOTTOM : 0));
+        state.setTimer(slot, atBottom ? now - atBottomTime : 0);
+    }
+
+    /**
+     * Puts back what {@link #saveState} wrote.
+     */
+    public void restoreState(LevelState state, int slot, long now) {
+        hitbox.y = state.getY(slot);
+        int flags = state.getFlags(slot);
+        lowering = (flags & LOWERING) != 0;
+        raising = (flags & RAISING) != 0;
+        atBottom = (flags & AT_BOTTOM) != 0;
+        atBottomTime = now - state.getTimer(slot);
     }
 }
 
@@ -1,6 +1,7 @@
 package main.model.entities;
 
 import java.awt.Graphics;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 
 public class Spike extends Entity {
@@ -29,8 +30,8 @@ public class Spike extends Entity {
         }
     }
     
-    public boolean checkPlayerCollision(Entity player) {
-        return hitbox.intersects(player.getHitbox());
+    public boolean checkPlayerCollision(Rectangle2D.Float playerHitbox) {
+        return hitbox.intersects(playerHitbox);
     }
     
     public void setSprite(BufferedImage sprite) {
@@ -53,8 +53,8 @@ public class TriggerPlatform extends Entity {
         controller.update();
     }
 
-    public void render(Graphics g) {
-        renderer.render(g);
+    public void render(Graphics g, float hitboxX, float hitboxY) {
+        renderer.render(g, hitboxX, hitboxY);
         // Optional debug hitbox rendering
         // renderer.renderHitbox(g);
     }
@@ -80,15 +80,6 @@ public class TriggerPlatform extends Entity {
         return model.isReachedTarget();
     }
 
-    public void reset() {
-        model.getHitbox().x = model.getStartX();
-        model.getHitbox().y = model.getStartY();
-        model.setTriggered(false);
-        model.setReachedTarget(false);
-        model.setMovingToTarget(true);
-        model.setWaitingAtTarget(false);
-    }
-
     public void setSprite(BufferedImage sprite) {
         model.setSprite(sprite);
     }
@@ -102,6 +93,7 @@ public class TriggerPlatform extends Entity {
         model.getHitbox().height = hitboxHeight;
         model.getHitbox().x = newX;
         model.getHitbox().y = newY;
+        model.savePreviousPosition();
         model.setStartX(newX);
         model.setStartY(newY);
         // Also update target to maintain the same movement offset
@@ -122,21 +114,17 @@ public class TriggerPlatform extends Entity {
     }
 
     // Get the sprite hitbox (the actual collidable area for standing)
-    public java.awt.geom.Rectangle2D.Float getSpriteHitbox() {
-        // Sprite area is centered in hitbox (hitbox is 1.5x sprite area)
-        // Sprite = hitbox / 1.5 = hitbox * 2/3, offset = hitbox / 6
-        java.awt.geom.Rectangle2D.Float hb = model.getHitbox();
-        float spriteAreaW = hb.width * 2 / 3;
-        float spriteAreaH = hb.height * 2 / 3;
-        float spriteAreaX = hb.x + hb.width / 6;
-        float spriteAreaY = hb.y + hb.height / 6;
-
-        return new java.awt.geom.Rectangle2D.Float(spriteAreaX, spriteAreaY, spriteAreaW, spriteAreaH);
+    public Rectangle2D.Float getSpriteHitbox() {
+        return controller.getSpriteHitbox();
     }
 
     @Override
     public Rectangle2D.Float getHitbox() {
         return model.getHitbox();
     }
+
+    public PlatformModel getModel() {
+        return model;
+    }
 }
 
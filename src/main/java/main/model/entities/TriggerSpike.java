@@ -33,16 +33,16 @@ public class TriggerSpike extends Entity {
         controller.update();
     }
 
-    public void render(Graphics g) {
-        renderer.render(g);
+    public void render(Graphics g, float hitboxX, float hitboxY) {
+        renderer.render(g, hitboxX, hitboxY);
     }
 
     public boolean checkTriggerDistance(Entity player) {
         return controller.checkTriggerDistance(player);
     }
 
-    public boolean checkPlayerCollision(Entity player) {
-        return model.getHitbox().intersects(player.getHitbox());
+    public boolean checkPlayerCollision(Rectangle2D.Float playerHitbox) {
+        return model.getHitbox().intersects(playerHitbox);
     }
 
     public void trigger() {
@@ -53,18 +53,13 @@ public class TriggerSpike extends Entity {
         return controller.isTriggered();
     }
 
-    public void reset() {
-        model.getHitbox().x = model.getStartX();
-        model.getHitbox().y = model.getStartY();
-        model.setTriggered(false);
-        model.setReachedTarget(false);
-        model.setMovingToTarget(true);
-        model.setWaitingAtTarget(false);
-    }
-
     @Override
     public Rectangle2D.Float getHitbox() {
         return model.getHitbox();
     }
+
+    public SpikeModel getModel() {
+        return model;
+    }
 }
 
@@ -0,0 +1,98 @@
+package main.model.leaderboard;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers leaderboard questions over every run ever logged: where a run ranks, a player's best run,
+ * percentile times and the leaderboard page by page. Every level keeps its runs in sorted trees, so each
+ * query takes logarithmic time (plus the length of a page) however long the history gets.
+ * Safe to use from any thread.
+ */
+public final class LeaderboardService {
+    private static final Comparator<ScoreEntry> BY_TIME = Comparator.comparingDouble(ScoreEntry::getTimeSeconds);
+
+    private final Map<Integer, LevelBoard> levels = new HashMap<>();
+
+    private static final class LevelBoard {
+        private final OrderStatisticTree<ScoreEntry> byRanking = new OrderStatisticTree<>(ScoreEntry.RANKING);
+        private final OrderStatisticTree<ScoreEntry> byTime = new OrderStatisticTree<>(BY_TIME);
+        private final Map<String, ScoreEntry> personalBests = new HashMap<>();
+    }
+
+    public synchronized void add(ScoreEntry entry) {
+        LevelBoard board = levels.computeIfAbsent(entry.getLevelIndex(), level -> new LevelBoard());
+        board.byRanking.add(entry);
+        board.byTime.add(entry);
+        board.personalBests.merge(entry.getName(), entry,
+                (best, run) -> ScoreEntry.RANKING.compare(run, best) < 0 ? run : best);
+    }
+
+    /**
+     * @return number of runs logged for the level
+     */
+    public synchronized int getRunCount(int levelIndex) {
+        LevelBoard board = levels.get(levelIndex);
+        return board == null ? 0 : board.byRanking.size();
+    }
+
+    /**
+     * Position of a run on its level's leaderboard, counted from 1. Runs with the same deaths and time share
+     * a rank. Works for runs that aren't on the leaderboard too, it then gives the rank they would get.
+     */
+    public synchronized int getRank(ScoreEntry run) {
+        LevelBoard board = levels.get(run.getLevelIndex());
+        return board == null ? 1 : board.byRanking.countLess(run) + 1;
+    }
+
+    /**
+     * @return the player's best run on the level, or null if they never finished it
+     */
+    public synchronized ScoreEntry getPersonalBest(String playerName, int levelIndex) {
+        LevelBoard board = levels.get(levelIndex);
+        return board == null ? null : board.personalBests.get(playerName);
+    }
+
+    /**
+     * Time that the given percentage of the level's runs were at least as fast as, by the nearest rank method.
+     *
+     * @param percentile 0 to 100, 50 gives the median
+     * @return the time in seconds, or NaN if the level has no runs
+     */
+    public synchronized double getPercentileTime(int levelIndex, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        LevelBoard board = levels.get(levelIndex);
+        if (board == null || board.byTime.size() == 0) {
+            return Double.NaN;
+        }
+        int count = board.byTime.size();
+        int index = Math.max(0, (int) Math.ceil(percentile / 100 * count) - 1);
+        return board.byTime.get(Math.min(index, count - 1)).getTimeSeconds();
+    }
+
+    /**
+     * One page of the level's leaderboard, best runs first.
+     *
+     * @param page     page number, counted from 0
+     * @param pageSize runs per page
+     * @return the runs on the page, empty past the last page
+     */
+    public synchronized List<ScoreEntry> getPage(int levelIndex, int page, int pageSize) {
+        if (page < 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("Invalid page " + page + " of size " + pageSize);
+        }
+        LevelBoard board = levels.get(levelIndex);
+        if (board == null) {
+            return List.of();
+        }
+        long from = (long) page * pageSize;
+        if (from >= board.byRanking.size()) {
+            return List.of();
+        }
+        return board.byRanking.range((int) from, pageSize);
+    }
+}
@@ -0,0 +1,165 @@
+package main.model.leaderboard;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import utilities.LoadSave;
+
+/**
+ * Every logged run, kept in memory so the leaderboard screen never has to touch the score log.
+ * The score log is read once by {@link #load()}, after that every score recorded through
+ * {@link #recordScore} is added right away and written to the log in the background.
+ * Queries go through {@link #getService()}, the top of each level is also kept as a ready made list
+ * for the leaderboard screen. Reading is safe from any thread, the lists handed out never change.
+ * <p>
+ * Other game instances may share the score log. Their runs are picked up while the game runs, reading only
+ * what they added to the log since it was last looked at.
+ */
+public final class LeaderboardStore {
+    /**
+     * How many runs the leaderboard screen shows per level.
+     */
+    public static final int TOP_COUNT = 5;
+
+    private static final LeaderboardStore INSTANCE = new LeaderboardStore();
+
+    // Only replaced when another instance compacts the log
+    private volatile LeaderboardService service = new LeaderboardService();
+    // Sorted best first, replaced as a whole when a run makes it in
+    private final Map<Integer, List<ScoreEntry>> topByLevel = new ConcurrentHashMap<>();
+    // Recorded runs not in the score log yet, in the order they were recorded
+    private final Queue<ScoreEntry> unsaved = new ConcurrentLinkedQueue<>();
+    // Held while writing to the score log and while reading it again after a compaction, so a run is
+    // either in what was read or still in unsaved
+    private final Object logLock = new Object();
+    private final ScoreWriter writer = new ScoreWriter(this::save);
+    private boolean loaded;
+
+    private LeaderboardStore() {
+        writer.start();
+    }
+
+    public static LeaderboardStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Reads the score log into memory. Only the first call does anything.
+     */
+    public synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        for (ScoreEntry entry : LoadSave.readScores()) {
+            add(entry);
+        }
+        loaded = true;
+
+        ScoreLog log = LoadSave.getScoreLog();
+        if (log != null) {
+            try {
+                new ScoreLogWatcher(log.getDataFile(), this::mergeNewRuns).start();
+            } catch (IOException e) {
+                System.err.println("Not watching the score log, runs of other instances show after a restart: "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Adds a finished run to the leaderboard and queues it to be saved to the score log.
+     * Never touches the disk itself, so it is safe to call from the game loop.
+     */
+    public void recordScore(String playerName, int levelIndex, double timeSeconds, int deaths) {
+        ScoreEntry entry = new ScoreEntry(playerName, levelIndex, deaths, timeSeconds);
+        synchronized (this) {
+            unsaved.add(entry);
+            add(entry);
+        }
+        // Outside the lock, a full queue must not hold up a reload that waits for the lock
+        writer.submit(entry);
+    }
+
+    /**
+     * @return the best runs of the level, best first, at most {@link #TOP_COUNT}
+     */
+    public List<ScoreEntry> getTop(int levelIndex) {
+        return topByLevel.getOrDefault(levelIndex, Collections.emptyList());
+    }
+
+    public LeaderboardService getService() {
+        return service;
+    }
+
+    /**
+     * Adds the runs other instances logged since the last check. Called when the score log changed.
+     * The log is read before the store is locked, so {@link #recordScore} never waits on the disk or on
+     * another instance holding the log.
+     */
+    public void mergeNewRuns() {
+        List<ScoreEntry> runs = LoadSave.readNewScores();
+        if (runs == null) {
+            // Compacted by another instance, the runs it dropped have to go here too
+            reload();
+            return;
+        }
+        synchronized (this) {
+            for (ScoreEntry entry : runs) {
+                add(entry);
+            }
+        }
+    }
+
+    // Builds the new lists first and then swaps them in, so the screen never shows an empty leaderboard.
+    // Nothing is written until the swap is done, so the runs of this instance that aren't in the log yet are
+    // exactly the unsaved ones, including those recorded while the log was being read.
+    private void reload() {
+        synchronized (logLock) {
+            LeaderboardService reloaded = new LeaderboardService();
+            Set<Integer> levels = new HashSet<>();
+            for (ScoreEntry entry : LoadSave.readScores()) {
+                reloaded.add(entry);
+                levels.add(entry.getLevelIndex());
+            }
+            synchronized (this) {
+                for (ScoreEntry entry : unsaved) {
+                    reloaded.add(entry);
+                    levels.add(entry.getLevelIndex());
+                }
+                service = reloaded;
+                for (int level : levels) {
+                    topByLevel.put(level, Collections.unmodifiableList(reloaded.getPage(level, 0, TOP_COUNT)));
+                }
+                topByLevel.keySet().retainAll(levels);
+            }
+        }
+    }
+
+    // Runs on the writer thread
+    private void save(List<ScoreEntry> batch) {
+        synchronized (logLock) {
+            try {
+                LoadSave.appendScores(batch);
+            } finally {
+                // A batch that failed has been reported, it is dropped either way
+                unsaved.removeAll(batch);
+            }
+        }
+    }
+
+    private void add(ScoreEntry entry) {
+        service.add(entry);
+        // Equal runs keep the order they were logged in, like the old sorted file did
+        if (service.getRank(entry) <= TOP_COUNT) {
+            int level = entry.getLevelIndex();
+            topByLevel.put(level, Collections.unmodifiableList(service.getPage(level, 0, TOP_COUNT)));
+        }
+    }
+}
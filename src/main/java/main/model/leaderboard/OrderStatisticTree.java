@@ -0,0 +1,148 @@
+package main.model.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted collection that can also find an element by its position and the position of an element in
+ * logarithmic time. It is a treap where every node knows the size of its subtree.
+ * Equal elements are kept in the order they were added. Not thread safe.
+ */
+final class OrderStatisticTree<T> {
+    private final Comparator<? super T> comparator;
+    private final SplittableRandom random = new SplittableRandom(0x5EED);
+    private Node<T> root;
+
+    private static final class Node<T> {
+        private final T value;
+        private final int priority;
+        private int size = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    OrderStatisticTree(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    void add(T value) {
+        root = insert(root, new Node<>(value, random.nextInt()));
+    }
+
+    int size() {
+        return sizeOf(root);
+    }
+
+    /**
+     * @return the element at the given position, 0 being the smallest
+     */
+    T get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size());
+        }
+        Node<T> node = root;
+        while (true) {
+            int leftSize = sizeOf(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.value;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * @return how many elements are strictly smaller than the given one
+     */
+    int countLess(T value) {
+        int count = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (comparator.compare(value, node.value) <= 0) {
+                node = node.left;
+            } else {
+                count += sizeOf(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return up to count elements in order, starting at the given position
+     */
+    List<T> range(int from, int count) {
+        List<T> result = new ArrayList<>(Math.max(0, Math.min(count, size() - from)));
+        collect(root, from, from + count, 0, result);
+        return result;
+    }
+
+    // Only walks into subtrees that overlap [from, to), so a page costs log n plus its length
+    private void collect(Node<T> node, int from, int to, int offset, List<T> result) {
+        if (node == null || from >= offset + node.size || to <= offset) {
+            return;
+        }
+        int index = offset + sizeOf(node.left);
+        collect(node.left, from, to, offset, result);
+        if (index >= from && index < to) {
+            result.add(node.value);
+        }
+        collect(node.right, from, to, index + 1, result);
+    }
+
+    // Equal values go right, which keeps them in the order they were added
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (comparator.compare(added.value, node.value) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static <T> void update(Node<T> node) {
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+    }
+
+    private static <T> int sizeOf(Node<T> node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,71 @@
+package main.model.leaderboard;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * One finished level run: who played it, which level, how often they died and how long it took.
+ */
+public final class ScoreEntry {
+    /**
+     * Leaderboard order, fewest deaths first and the fastest time between runs with as many deaths.
+     */
+    public static final Comparator<ScoreEntry> RANKING =
+            Comparator.comparingInt(ScoreEntry::getDeaths).thenComparingDouble(ScoreEntry::getTimeSeconds);
+
+    private final String name;
+    private final int levelIndex;
+    private final int deaths;
+    private final double timeSeconds;
+
+    public ScoreEntry(String name, int levelIndex, int deaths, double timeSeconds) {
+        this.name = name;
+        this.levelIndex = levelIndex;
+        this.deaths = deaths;
+        this.timeSeconds = timeSeconds;
+    }
+
+    /**
+     * Parses a line of the score file, {@code name;level;deaths;time} with the level counted from 1.
+     *
+     * @return the entry, or null if the line is blank or malformed
+     */
+    public static ScoreEntry parse(String line) {
+        String[] parts = line.split(";");
+        if (parts.length < 4) {
+            return null;
+        }
+        try {
+            int level = Integer.parseInt(parts[1].trim());
+            int deaths = Integer.parseInt(parts[2].trim());
+            // Handle both dot and comma decimal separators
+            double time = Double.parseDouble(parts[3].trim().replace(",", "."));
+            return new ScoreEntry(parts[0].trim(), level - 1, deaths, time);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the entry as a line of the score file
+     */
+    public String toLine() {
+        return name + ";" + (levelIndex + 1) + ";" + deaths + ";" + String.format(Locale.US, "%.2f", timeSeconds);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLevelIndex() {
+        return levelIndex;
+    }
+
+    public int getDeaths() {
+        return deaths;
+    }
+
+    public double getTimeSeconds() {
+        return timeSeconds;
+    }
+}
@@ -0,0 +1,474 @@
+package main.model.leaderboard;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of every finished run. Runs are fixed size binary records, so the whole file is read in
+ * one go without parsing any text, and a level's runs are read straight from their positions using an
+ * index built when the log is opened. Player names are stored once in a separate dictionary file and the
+ * records refer to them by number.
+ * <p>
+ * Data file layout (big endian): magic "SCR1" (int), version (short), record size (short), generation (int),
+ * reserved (int), then the records: name id (int), level index (int), deaths (int), time in seconds (double).
+ * The generation goes up every time the log is compacted.
+ * The dictionary holds the names in id order, each written with {@link DataOutputStream#writeUTF}.
+ * Names are never removed from it, so ids stay valid when the data file is rewritten.
+ * <p>
+ * Several game instances can share one log. Every write holds an exclusive lock on a separate lock file
+ * (the data file itself gets replaced by compaction, so it can't carry the lock) and every read a shared one.
+ * Before writing, a log first catches up on what the other processes appended since it last looked, reading
+ * only the new part of both files. The runs found that way are handed out by {@link #readNew()}.
+ */
+public final class ScoreLog {
+    public static final String DATA_FILE = "leaderboard.dat";
+    public static final String NAMES_FILE = "leaderboard.names";
+    public static final String LOCK_FILE = "leaderboard.lock";
+
+    private static final int MAGIC = 0x53435231;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 20;
+    private static final int LEVEL_OFFSET = 4;
+    private static final int GENERATION_OFFSET = 8;
+    // Records read per chunk when scanning the whole file
+    private static final int READ_CHUNK_RECORDS = 4096;
+
+    private final Path dataFile;
+    private final Path namesFile;
+    private final Path lockFile;
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    // Record numbers of every level's runs, in the order they were logged
+    private final Map<Integer, RecordNumbers> levelRecords = new HashMap<>();
+    private int recordCount;
+    private int generation;
+    // Bytes of the dictionary already read
+    private long namesLength;
+    // Runs other processes appended that readNew() hasn't handed out yet
+    private final List<ScoreEntry> pending = new ArrayList<>();
+    // Set when another process compacted the log, readNew() then asks for a full read
+    private boolean reloaded;
+
+    private static final class RecordNumbers {
+        private int[] values = new int[16];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    private ScoreLog(Path directory) {
+        this.dataFile = directory.resolve(DATA_FILE);
+        this.namesFile = directory.resolve(NAMES_FILE);
+        this.lockFile = directory.resolve(LOCK_FILE);
+    }
+
+    /**
+     * Opens the log in the given directory, creating empty files if there is none yet.
+     */
+    public static ScoreLog open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        ScoreLog log = new ScoreLog(directory);
+        // Locked so two instances starting together don't both write a header
+        try (FileChannel lockChannel = openLock(log.lockFile);
+             FileLock lock = lockChannel.lock()) {
+            if (!Files.exists(log.dataFile)) {
+                writeHeader(log.dataFile, 0);
+            }
+            if (!Files.exists(log.namesFile)) {
+                Files.createFile(log.namesFile);
+            }
+            log.readNewNames();
+            log.buildIndex();
+        }
+        return log;
+    }
+
+    /**
+     * Writes the runs to the end of the log.
+     */
+    public synchronized void append(List<ScoreEntry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try (FileChannel lockChannel = openLock(lockFile);
+             FileLock lock = lockChannel.lock()) {
+            catchUp();
+            write(entries);
+        }
+    }
+
+    /**
+     * Writes the runs only if the log has no runs yet, also counting the ones other processes wrote.
+     *
+     * @return whether the runs were written
+     */
+    public synchronized boolean appendIfEmpty(List<ScoreEntry> entries) throws IOException {
+        try (FileChannel lockChannel = openLock(lockFile);
+             FileLock lock = lockChannel.lock()) {
+            catchUp();
+            if (recordCount > 0) {
+                return false;
+            }
+            write(entries);
+            return true;
+        }
+    }
+
+    /**
+     * Runs that other processes appended since the last call or the last {@link #readAll()}.
+     * Only reads the part of the log that was added since this log last looked at it.
+     *
+     * @return the new runs in the order they were logged, or null if another process compacted the log,
+     *         in which case {@link #readAll()} gives the runs that are left
+     */
+    public synchronized List<ScoreEntry> readNew() throws IOException {
+        try (FileChannel lockChannel = openLock(lockFile);
+             FileLock lock = lockChannel.lock(0, Long.MAX_VALUE, true)) {
+            catchUp();
+        }
+        if (reloaded) {
+            reloaded = false;
+            pending.clear();
+            return null;
+        }
+        List<ScoreEntry> entries = new ArrayList<>(pending);
+        pending.clear();
+        return entries;
+    }
+
+    // Caller holds the exclusive lock and has caught up, so the ids and the record count are current
+    private void write(List<ScoreEntry> entries) throws IOException {
+        // Names go first, a record must never point at a name that isn't written yet
+        Map<String, Integer> newNames = new LinkedHashMap<>();
+        int[] ids = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            String name = entries.get(i).getName();
+            Integer id = nameIds.get(name);
+            if (id == null) {
+                id = newNames.get(name);
+            }
+            if (id == null) {
+                id = names.size() + newNames.size();
+                newNames.put(name, id);
+            }
+            ids[i] = id;
+        }
+        if (!newNames.isEmpty()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (String name : newNames.keySet()) {
+                out.writeUTF(name);
+            }
+            ByteBuffer nameBuffer = ByteBuffer.wrap(bytes.toByteArray());
+            try (FileChannel channel = FileChannel.open(namesFile, StandardOpenOption.WRITE)) {
+                // Like the records, a name cut off by a crash is written over
+                channel.truncate(namesLength);
+                long position = namesLength;
+                while (nameBuffer.hasRemaining()) {
+                    position += channel.write(nameBuffer, position);
+                }
+            }
+            namesLength += bytes.size();
+            nameIds.putAll(newNames);
+            names.addAll(newNames.keySet());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(entries.size() * RECORD_SIZE);
+        for (int i = 0; i < entries.size(); i++) {
+            ScoreEntry entry = entries.get(i);
+            buffer.putInt(ids[i]).putInt(entry.getLevelIndex()).putInt(entry.getDeaths())
+                    .putDouble(entry.getTimeSeconds());
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.WRITE)) {
+            // Positioned after the last whole record, so a record cut off by a crash gets overwritten
+            long position = HEADER_SIZE + (long) recordCount * RECORD_SIZE;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+        for (ScoreEntry entry : entries) {
+            levelRecords.computeIfAbsent(entry.getLevelIndex(), level -> new RecordNumbers()).add(recordCount++);
+        }
+    }
+
+    /**
+     * @return every run in the log, in the order they were logged, including the ones not yet handed out by
+     *         {@link #readNew()}
+     */
+    public synchronized List<ScoreEntry> readAll() throws IOException {
+        try (FileChannel lockChannel = openLock(lockFile);
+             FileLock lock = lockChannel.lock(0, Long.MAX_VALUE, true)) {
+            catchUp();
+            pending.clear();
+            reloaded = false;
+            return readRecords(0, recordCount);
+        }
+    }
+
+    /**
+     * @return the runs of one level, in the order they were logged. Only reads that level's records.
+     */
+    public synchronized List<ScoreEntry> readLevel(int levelIndex) throws IOException {
+        try (FileChannel lockChannel = openLock(lockFile);
+             FileLock lock = lockChannel.lock(0, Long.MAX_VALUE, true)) {
+            // The index is only valid for the file as it was when this log last looked at it
+            catchUp();
+            RecordNumbers records = levelRecords.get(levelIndex);
+            if (records == null) {
+                return new ArrayList<>();
+            }
+            List<ScoreEntry> entries = new ArrayList<>(records.size);
+            try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+                for (int i = 0; i < records.size; i++) {
+                    buffer.clear();
+                    readFully(channel, buffer, HEADER_SIZE + (long) records.values[i] * RECORD_SIZE);
+                    buffer.flip();
+                    entries.add(readRecord(buffer));
+                }
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Rewrites the log keeping only every player's best run on each level, in the order they were logged.
+     * The new file replaces the old one in a single move, so a crash leaves one or the other.
+     *
+     * @return number of runs removed
+     */
+    public synchronized int compact() throws IOException {
+        try (FileChannel lockChannel = openLock(lockFile);
+             FileLock lock = lockChannel.lock()) {
+            catchUp();
+            return rewriteBest();
+        }
+    }
+
+    private int rewriteBest() throws IOException {
+        List<ScoreEntry> entries = readRecords(0, recordCount);
+        Map<String, Integer> bestIndex = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            ScoreEntry entry = entries.get(i);
+            String key = entry.getLevelIndex() + ";" + entry.getName();
+            Integer best = bestIndex.get(key);
+            if (best == null || ScoreEntry.RANKING.compare(entry, entries.get(best)) < 0) {
+                bestIndex.put(key, i);
+            }
+        }
+        boolean[] keep = new boolean[entries.size()];
+        for (int index : bestIndex.values()) {
+            keep[index] = true;
+        }
+
+        Path temp = dataFile.resolveSibling(DATA_FILE + ".tmp");
+        writeHeader(temp, generation + 1);
+        ByteBuffer buffer = ByteBuffer.allocate(bestIndex.size() * RECORD_SIZE);
+        for (int i = 0; i < entries.size(); i++) {
+            if (keep[i]) {
+                ScoreEntry entry = entries.get(i);
+                buffer.putInt(nameIds.get(entry.getName())).putInt(entry.getLevelIndex())
+                        .putInt(entry.getDeaths()).putDouble(entry.getTimeSeconds());
+            }
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        levelRecords.clear();
+        buildIndex();
+        return entries.size() - bestIndex.size();
+    }
+
+    /**
+     * @return number of runs in the log
+     */
+    public synchronized int size() {
+        return recordCount;
+    }
+
+    public synchronized int getGeneration() {
+        return generation;
+    }
+
+    public Path getDataFile() {
+        return dataFile;
+    }
+
+    private ScoreEntry readRecord(ByteBuffer buffer) {
+        int nameId = buffer.getInt();
+        int levelIndex = buffer.getInt();
+        int deaths = buffer.getInt();
+        double time = buffer.getDouble();
+        String name = nameId >= 0 && nameId < names.size() ? names.get(nameId) : "?";
+        return new ScoreEntry(name, levelIndex, deaths, time);
+    }
+
+    /**
+     * Picks up what other processes added to the log since it was last read. Caller holds the lock.
+     * Only the new names and records are read, unless the data file was compacted in the meantime,
+     * then the index is built again and readNew() reports it.
+     */
+    private void catchUp() throws IOException {
+        readNewNames();
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            readFully(channel, header, GENERATION_OFFSET);
+            int fileRecords = (int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE);
+            if (header.getInt(0) != generation || fileRecords < recordCount) {
+                levelRecords.clear();
+                buildIndex();
+                reloaded = true;
+                return;
+            }
+            if (fileRecords == recordCount) {
+                return;
+            }
+            int first = recordCount;
+            List<ScoreEntry> added = readRecords(channel, first, fileRecords - first);
+            for (ScoreEntry entry : added) {
+                levelRecords.computeIfAbsent(entry.getLevelIndex(), level -> new RecordNumbers()).add(recordCount++);
+            }
+            pending.addAll(added);
+        }
+    }
+
+    private List<ScoreEntry> readRecords(int first, int count) throws IOException {
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            return readRecords(channel, first, count);
+        }
+    }
+
+    private List<ScoreEntry> readRecords(FileChannel channel, int first, int count) throws IOException {
+        List<ScoreEntry> entries = new ArrayList<>(count);
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(count, READ_CHUNK_RECORDS) * RECORD_SIZE);
+        long position = HEADER_SIZE + (long) first * RECORD_SIZE;
+        int remaining = count;
+        while (remaining > 0) {
+            int chunk = Math.min(remaining, READ_CHUNK_RECORDS);
+            buffer.clear().limit(chunk * RECORD_SIZE);
+            readFully(channel, buffer, position);
+            buffer.flip();
+            for (int i = 0; i < chunk; i++) {
+                entries.add(readRecord(buffer));
+            }
+            position += (long) chunk * RECORD_SIZE;
+            remaining -= chunk;
+        }
+        return entries;
+    }
+
+    // Reads the dictionary from where the last read stopped
+    private void readNewNames() throws IOException {
+        byte[] bytes;
+        try (FileChannel channel = FileChannel.open(namesFile, StandardOpenOption.READ)) {
+            long added = channel.size() - namesLength;
+            if (added <= 0) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) added);
+            readFully(channel, buffer, namesLength);
+            bytes = buffer.array();
+        }
+        ByteArrayInputStream file = new ByteArrayInputStream(bytes);
+        DataInputStream in = new DataInputStream(file);
+        int read = 0;
+        while (true) {
+            String name;
+            try {
+                name = in.readUTF();
+            } catch (EOFException e) {
+                // End of the file, or a name cut off by a crash which no record can point at yet
+                break;
+            }
+            nameIds.put(name, names.size());
+            names.add(name);
+            read = bytes.length - file.available();
+        }
+        namesLength += read;
+    }
+
+    // Reads only the header and the level of every record, that is all the index needs
+    private void buildIndex() throws IOException {
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException(dataFile + " is not a score log");
+            }
+            readFully(channel, header, 0);
+            header.flip();
+            int magic = header.getInt();
+            short version = header.getShort();
+            short recordSize = header.getShort();
+            if (magic != MAGIC || version != VERSION || recordSize != RECORD_SIZE) {
+                throw new IOException(dataFile + " is not a version " + VERSION + " score log");
+            }
+            generation = header.getInt(GENERATION_OFFSET);
+
+            // A record cut off by a crash is left out and overwritten by the next append
+            recordCount = (int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE);
+            ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK_RECORDS * RECORD_SIZE);
+            int record = 0;
+            while (record < recordCount) {
+                int count = Math.min(recordCount - record, READ_CHUNK_RECORDS);
+                buffer.clear().limit(count * RECORD_SIZE);
+                readFully(channel, buffer, HEADER_SIZE + (long) record * RECORD_SIZE);
+                for (int i = 0; i < count; i++) {
+                    int level = buffer.getInt(i * RECORD_SIZE + LEVEL_OFFSET);
+                    levelRecords.computeIfAbsent(level, l -> new RecordNumbers()).add(record + i);
+                }
+                record += count;
+            }
+        }
+    }
+
+    private static FileChannel openLock(Path lockFile) throws IOException {
+        return FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    private static void writeHeader(Path file, int generation) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putInt(generation).putInt(0);
+        Files.write(file, header.array());
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Score log ended early");
+            }
+            position += read;
+        }
+    }
+}
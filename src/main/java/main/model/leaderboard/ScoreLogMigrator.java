@@ -0,0 +1,81 @@
+package main.model.leaderboard;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves the scores of the old {@code name;level;deaths;time} text file into a {@link ScoreLog}.
+ * Only runs while the log is still empty, so it happens once and the text file is left as it was.
+ * <p>
+ * Usage: {@code ScoreLogMigrator [directory] [--compact]}, the directory defaults to src/main/resources.
+ * With {@code --compact} the log is compacted afterwards, keeping only every player's best run per level.
+ */
+public final class ScoreLogMigrator {
+
+    private ScoreLogMigrator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean compact = args.length > 0 && "--compact".equals(args[args.length - 1]);
+        int directoryArgs = compact ? args.length - 1 : args.length;
+        Path directory = Paths.get(directoryArgs > 0 ? args[0] : "src/main/resources");
+
+        ScoreLog log = ScoreLog.open(directory);
+        int imported = migrate(directory.resolve("leaderboard.txt"), log);
+        System.out.println("Imported " + imported + " scores, the log holds " + log.size());
+        if (compact) {
+            System.out.println("Compaction removed " + log.compact() + " runs, " + log.size() + " left");
+        }
+    }
+
+    /**
+     * Copies every valid line of the text file into the log, if the log has no runs yet.
+     *
+     * @return number of runs imported
+     */
+    public static int migrate(Path textFile, ScoreLog log) throws IOException {
+        if (log.size() > 0 || !Files.exists(textFile)) {
+            return 0;
+        }
+        List<ScoreEntry> entries = readTextFile(textFile);
+        // Another instance may have migrated the file since the check above
+        return log.appendIfEmpty(entries) ? entries.size() : 0;
+    }
+
+    /**
+     * Reads every valid line of the text file, malformed lines are counted and skipped.
+     *
+     * @return the runs in the order of the file, empty if there is no file
+     */
+    public static List<ScoreEntry> readTextFile(Path textFile) throws IOException {
+        List<ScoreEntry> entries = new ArrayList<>();
+        if (!Files.exists(textFile)) {
+            return entries;
+        }
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(textFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                ScoreEntry entry = ScoreEntry.parse(line);
+                if (entry == null) {
+                    skipped++;
+                } else {
+                    entries.add(entry);
+                }
+            }
+        }
+        if (skipped > 0) {
+            System.out.println("Skipped " + skipped + " malformed lines in " + textFile);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,83 @@
+package main.model.leaderboard;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells the leaderboard when another game instance wrote to the shared score log.
+ * The change is only reported, reading what was added is up to the listener.
+ * File systems shared over the network don't always report changes made by other machines, so the listener
+ * is also called every few seconds when nothing was reported. Finding nothing new is cheap.
+ */
+public class ScoreLogWatcher {
+    // One run finished writes two files, wait for both before reading
+    private static final long SETTLE_MILLIS = 20;
+    private static final long FALLBACK_SECONDS = 5;
+
+    private final Path file;
+    private final Runnable onChange;
+
+    /**
+     * @param file     the score log data file
+     * @param onChange called on the watcher thread after the file changed
+     */
+    public ScoreLogWatcher(Path file, Runnable onChange) {
+        this.file = file;
+        this.onChange = onChange;
+    }
+
+    /**
+     * Starts watching on a background thread.
+     *
+     * @throws IOException if the directory of the file can't be watched
+     */
+    public void start() throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        WatchService watcher = directory.getFileSystem().newWatchService();
+        // Compaction replaces the file, that shows up as a new file rather than a change
+        directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread thread = new Thread(() -> watch(watcher), "score-log-watcher");
+        // Watching must never keep the game from exiting
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch(WatchService watcher) {
+        Path name = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watcher.poll(FALLBACK_SECONDS, TimeUnit.SECONDS);
+                boolean changed = key == null;
+                if (key != null) {
+                    Thread.sleep(SETTLE_MILLIS);
+                }
+                // Everything that piled up in the meantime is handled with one read
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        // Events can get lost when too many come in, the file may have changed then
+                        changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context());
+                    }
+                    if (!key.reset()) {
+                        System.err.println("Stopped watching " + file + ", its directory is no longer accessible");
+                        return;
+                    }
+                    key = watcher.poll();
+                }
+                if (changed) {
+                    onChange.run();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+}
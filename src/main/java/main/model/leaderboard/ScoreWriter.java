@@ -0,0 +1,131 @@
+package main.model.leaderboard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Writes scores on a background thread so finishing a level never waits on the disk.
+ * Scores that pile up while a write is going on are written together in the next one. Whatever is still
+ * queued when the game exits is written before the process ends.
+ */
+public final class ScoreWriter {
+    // Far more than a player can finish levels, only a disk that stopped responding fills it
+    private static final int QUEUE_CAPACITY = 256;
+    private static final int MAX_BATCH = 64;
+    private static final long POLL_MS = 100;
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
+    private final BlockingQueue<ScoreEntry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Consumer<List<ScoreEntry>> sink;
+    private final Thread thread;
+    // Guards closed together with adding to the queue, so the writer can't stop while a score is on its way in
+    private final Object lock = new Object();
+    private boolean closed;
+
+    /**
+     * @param sink writes a batch of scores, called on the writer thread only
+     */
+    public ScoreWriter(Consumer<List<ScoreEntry>> sink) {
+        this.sink = sink;
+        this.thread = new Thread(this::run, "score-writer");
+        // The shutdown hook drains the queue, the thread itself must not keep the game running
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer thread and makes sure the queue is written out when the JVM shuts down.
+     */
+    public void start() {
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "score-writer-shutdown"));
+    }
+
+    /**
+     * Queues a score for writing. Only waits if the queue is full.
+     * Called from the game loop, so a score that can't be queued any more is reported instead of thrown.
+     */
+    public void submit(ScoreEntry entry) {
+        synchronized (lock) {
+            while (true) {
+                if (closed) {
+                    System.err.println("Score writer is closed, the score of " + entry.getName() + " is not saved");
+                    return;
+                }
+                if (queue.offer(entry)) {
+                    return;
+                }
+                try {
+                    // Woken up when the writer takes a batch
+                    lock.wait(POLL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    System.err.println("Interrupted while queueing score of " + entry.getName());
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of scores waiting to be written
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Stops taking new scores and waits for the queued ones to be written.
+     */
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        if (!thread.isAlive()) {
+            return;
+        }
+        try {
+            thread.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            System.err.println(queue.size() + " scores could not be written before shutdown");
+        }
+    }
+
+    private void run() {
+        List<ScoreEntry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                ScoreEntry first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    // Nothing can be queued once closed is seen under the lock, so empty now means empty for good
+                    synchronized (lock) {
+                        if (closed && queue.isEmpty()) {
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Only close() stops the writer, keep going until the queue is empty
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+            try {
+                sink.accept(batch);
+            } catch (RuntimeException e) {
+                System.err.println("Could not write " + batch.size() + " scores: " + e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+}
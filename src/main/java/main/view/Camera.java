@@ -0,0 +1,48 @@
+package main.view;
+
+import java.awt.Rectangle;
+
+/**
+ * The part of the level that is on screen. Follows a target, usually the player, and stops at the level
+ * edges so nothing outside the level is shown. Levels no larger than the screen never scroll.
+ */
+public class Camera {
+    private final Rectangle viewport;
+
+    public Camera(int viewWidth, int viewHeight) {
+        this.viewport = new Rectangle(0, 0, viewWidth, viewHeight);
+    }
+
+    /**
+     * Centers the view on the given point, clamped to the level.
+     *
+     * @param targetX     point to center on, in level pixels
+     * @param targetY     point to center on, in level pixels
+     * @param levelWidth  level width in pixels
+     * @param levelHeight level height in pixels
+     */
+    public void follow(float targetX, float targetY, int levelWidth, int levelHeight) {
+        // Whole pixels, otherwise tile edges shimmer while scrolling
+        viewport.x = clamp(Math.round(targetX - viewport.width / 2f), levelWidth - viewport.width);
+        viewport.y = clamp(Math.round(targetY - viewport.height / 2f), levelHeight - viewport.height);
+    }
+
+    public int getX() {
+        return viewport.x;
+    }
+
+    public int getY() {
+        return viewport.y;
+    }
+
+    /**
+     * The visible area in level pixels. The same instance is updated by {@link #follow}, so don't hold on to it.
+     */
+    public Rectangle getViewport() {
+        return viewport;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+}
@@ -0,0 +1,78 @@
+package main.view;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+
+import main.controller.inputs.KeyboardInputs;
+import main.controller.inputs.MouseInputs;
+import main.controller.Game;
+import static main.controller.Game.GAME_HEIGHT;
+import static main.controller.Game.GAME_WIDTH;
+
+/**
+ * Active rendering surface. Frames are drawn straight into a page flipping {@link BufferStrategy}
+ * from the game loop thread, instead of asking Swing to repaint on the EDT.
+ */
+public class GameCanvas extends Canvas implements RenderSurface {
+    private static final int BUFFER_PAGES = 3;
+
+    private Game game;
+
+    public GameCanvas(Game game) {
+        MouseInputs mouseInputs = new MouseInputs();
+        this.game = game;
+        setPreferredSize(new Dimension(GAME_WIDTH, GAME_HEIGHT));
+        // We paint ourselves from the game loop, Swing repaints would only flicker
+        setIgnoreRepaint(true);
+        setFocusable(true);
+        addKeyListener(new KeyboardInputs(game));
+        mouseInputs.setRenderSurface(this);
+        addMouseListener(mouseInputs);
+        addMouseMotionListener(mouseInputs);
+    }
+
+    @Override
+    public void present() {
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy == null) {
+            if (!isDisplayable()) {
+                return;
+            }
+            createBufferStrategy(BUFFER_PAGES);
+            strategy = getBufferStrategy();
+        }
+
+        // The buffer contents can be lost at any time (e.g. alt-tab), redraw until we get a clean frame
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    g.setColor(Color.BLACK);
+                    g.fillRect(0, 0, getWidth(), getHeight());
+                    game.render(g);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+
+        // Flush the pipeline so the frame shows up now and not whenever the OS feels like it (Linux)
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    @Override
+    public Component getComponent() {
+        return this;
+    }
+
+    @Override
+    public Game getGame() {
+        return game;
+    }
+}
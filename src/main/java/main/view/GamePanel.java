@@ -1,5 +1,6 @@
 package main.view;
 
+import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Graphics;
 
@@ -11,7 +12,11 @@ import main.controller.Game;
 import static main.controller.Game.GAME_HEIGHT;
 import static main.controller.Game.GAME_WIDTH;
 
-public class GamePanel extends JPanel {
+/**
+ * Passive rendering surface, frames are requested with repaint() and drawn by Swing on the EDT.
+ * Used as a fallback when active rendering is turned off with -Dgame.rendering=passive.
+ */
+public class GamePanel extends JPanel implements RenderSurface {
     private MouseInputs mouseInputs;
     private Game game;
 
@@ -20,7 +25,7 @@ public class GamePanel extends JPanel {
         this.game = game;
         setPanelSize();
         addKeyListener(new KeyboardInputs(game));
-        mouseInputs.setGamePanel(this);
+        mouseInputs.setRenderSurface(this);
         addMouseListener(mouseInputs);
         addMouseMotionListener(mouseInputs);
     }
@@ -39,6 +44,17 @@ public class GamePanel extends JPanel {
         game.render(g);
     }
 
+    @Override
+    public void present() {
+        repaint();
+    }
+
+    @Override
+    public Component getComponent() {
+        return this;
+    }
+
+    @Override
     public Game getGame() {
         return game;
     }
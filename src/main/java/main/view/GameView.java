@@ -6,60 +6,104 @@ import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
 
+import main.controller.Game;
 import main.model.GameModel;
+import main.model.Levels.Level;
+import main.model.Levels.LevelManager;
+import main.model.RenderSnapshot;
+import main.model.RenderSnapshotBuffer;
 
 public class GameView {
     private final GameModel model;
+    private final RenderSnapshotBuffer snapshots;
     private final int gameWidth;
     private final int gameHeight;
+    private final Camera camera;
+    // Where the camera was last pointed, kept while the player is dead so the view doesn't jump
+    private float cameraTargetX;
+    private float cameraTargetY;
 
-    public GameView(GameModel model, int gameWidth, int gameHeight) {
+    public GameView(GameModel model, RenderSnapshotBuffer snapshots, int gameWidth, int gameHeight) {
         this.model = model;
+        this.snapshots = snapshots;
         this.gameWidth = gameWidth;
         this.gameHeight = gameHeight;
+        this.camera = new Camera(gameWidth, gameHeight);
     }
 
-    public void renderGame(Graphics g) {
+    /**
+     * Renders the level, player and HUD from the latest snapshot published by the game thread.
+     * Nothing here reads the live, mutable model state.
+     *
+     * @param alpha How far we are between the previous and the current update tick (0-1),
+     *              used to interpolate moving entities
+     */
+    public void renderGame(Graphics g, float alpha) {
+        RenderSnapshot snapshot = snapshots.acquireLatest();
+        if (snapshot.isEmpty()) {
+            return;
+        }
+
+        // Nothing moves while paused or in a transition, so draw the latest positions as they are
+        float renderAlpha = snapshot.isPaused() || snapshot.isInTransition() ? 1f : alpha;
+        LevelManager levelManager = model.getLevelManager();
+        Level level = snapshot.getLevel();
+
+        if (!snapshot.isPlayerDead()) {
+            cameraTargetX = snapshot.getPlayerX(renderAlpha) + snapshot.getPlayerWidth() / 2;
+            cameraTargetY = snapshot.getPlayerY(renderAlpha) + snapshot.getPlayerHeight() / 2;
+        }
+        camera.follow(cameraTargetX, cameraTargetY, level.getWidthInTiles() * Game.TILES_SIZE,
+                level.getHeightInTiles() * Game.TILES_SIZE);
+
+        // Everything in the world is drawn in level coordinates, the HUD stays on the screen
+        g.translate(-camera.getX(), -camera.getY());
+
         //Level
-        model.getLevelManager().draw(g);
-        model.getLevelManager().drawObjectLayer(g);
+        levelManager.draw(g, snapshot, renderAlpha, camera.getViewport());
+        levelManager.drawObjectLayer(g, snapshot, camera.getViewport());
 
         //Player
-        model.getPlayer().render(g);
+        if (!snapshot.isPlayerDead()) {
+            model.getPlayer().render(g, snapshot.getPlayerX(renderAlpha), snapshot.getPlayerY(renderAlpha),
+                    snapshot.getPlayerAction(), snapshot.getPlayerAniIndex());
+        }
 
         //Foreground/UI
-        model.getLevelManager().getCurrentLvl().drawSpawnPlatform(g);
-        drawHUD(g);
+        level.drawSpawnPlatform(g, snapshot);
+        g.translate(camera.getX(), camera.getY());
+        drawHUD(g, snapshot);
 
-        if (model.isPaused()) {
+        if (snapshot.isPaused()) {
             drawPauseOverlay(g);
         }
     }
 
     public void renderTransition(Graphics g, BufferedImage transitionImage) {
-        if (!model.isInTransition() || transitionImage == null) {
+        RenderSnapshot snapshot = snapshots.acquireLatest();
+        if (snapshot.isEmpty() || !snapshot.isInTransition() || transitionImage == null) {
             return;
         }
 
-        float transitionScale = model.getTransitionScale();
+        float transitionScale = snapshot.getTransitionScale();
 
         int scaledWidth = (int) (gameWidth * transitionScale * 1.5f);
         int scaledHeight = (int) (gameHeight * transitionScale * 1.5f);
 
-        int x = (int) (model.getPlayer().getHitbox().x - (scaledWidth / 2.0f));
-        int y = (int) (model.getPlayer().getHitbox().y - (scaledHeight / 2.0f));
+        int x = (int) (snapshot.getPlayerX(1f) - camera.getX() - (scaledWidth / 2.0f));
+        int y = (int) (snapshot.getPlayerY(1f) - camera.getY() - (scaledHeight / 2.0f));
 
         g.drawImage(transitionImage, x, y, scaledWidth, scaledHeight, null);
     }
 
-    private void drawHUD(Graphics g) {
+    private void drawHUD(Graphics g, RenderSnapshot snapshot) {
         g.setColor(new Color(0, 0, 0, 150));
         g.fillRoundRect(10, 10, 200, 60, 10, 10);
 
         g.setColor(Color.WHITE);
         g.setFont(new Font("Arial", Font.BOLD, 16));
-        g.drawString("Level: " + (model.getLevelManager().getCurrentLevelIndex() + 1), 20, 35);
-        g.drawString("Deaths: " + model.getPlayer().getDeathCount(), 20, 55);
+        g.drawString("Level: " + (snapshot.getLevelIndex() + 1), 20, 35);
+        g.drawString("Deaths: " + snapshot.getDeathCount(), 20, 55);
     }
 
     private void drawPauseOverlay(Graphics g) {
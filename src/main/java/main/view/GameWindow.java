@@ -8,11 +8,11 @@ import javax.swing.JFrame;
 public class GameWindow {
     private JFrame jframe;
 
-    public GameWindow(GamePanel gamePanel) {
+    public GameWindow(RenderSurface renderSurface) {
         jframe = new JFrame();
 
         jframe.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        jframe.add(gamePanel);
+        jframe.add(renderSurface.getComponent());
         jframe.setLocationRelativeTo(null);
         jframe.setResizable(false);
         jframe.pack();
@@ -21,7 +21,7 @@ public class GameWindow {
 
             @Override
             public void windowGainedFocus(WindowEvent e) {
-                gamePanel.getGame().windowFocusLost();
+                renderSurface.getGame().windowFocusLost();
             }
 
             @Override
@@ -0,0 +1,21 @@
+package main.view;
+
+import java.awt.Component;
+
+import main.controller.Game;
+
+/**
+ * Something the game can be drawn onto and shown in the {@link GameWindow}.
+ * The game loop calls {@link #present()} whenever a new frame is due.
+ */
+public interface RenderSurface {
+
+    /**
+     * Draws and shows a new frame, or asks for one to be drawn.
+     */
+    void present();
+
+    Component getComponent();
+
+    Game getGame();
+}
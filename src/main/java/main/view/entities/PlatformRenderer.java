@@ -18,14 +18,14 @@ public class PlatformRenderer {
     }
 
     /**
-     * Renders the platform
+     * Renders the platform at the given hitbox position
      */
-    public void render(Graphics g) {
+    public void render(Graphics g, float hitboxX, float hitboxY) {
         int tileSize = Game.TILES_SIZE;
 
         // Sprite area is centered in the hitbox (hitbox is 1.5x the sprite area)
-        float spriteAreaX = model.getHitbox().x + model.getHitbox().width / 6;
-        float spriteAreaY = model.getHitbox().y + model.getHitbox().height / 6;
+        float spriteAreaX = hitboxX + model.getHitbox().width / 6;
+        float spriteAreaY = hitboxY + model.getHitbox().height / 6;
 
         // Draw first tile sprite at its offset within the sprite area
         int firstX = (int) (spriteAreaX + model.getFirstTileOffsetX());
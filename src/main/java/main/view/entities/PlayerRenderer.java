@@ -20,12 +20,12 @@ public class PlayerRenderer {
     }
 
     /**
-     * Renders the player character
+     * Renders the player character at the given hitbox position
      */
-    public void render(Graphics g) {
-        g.drawImage(animations[model.getPlayerAction()][model.getAniIndex()],
-                (int) (model.getHitbox().x - model.getXDrawOffset()),
-                (int) (model.getHitbox().y - model.getYDrawOffset()),
+    public void render(Graphics g, float hitboxX, float hitboxY, int playerAction, int aniIndex) {
+        g.drawImage(animations[playerAction][aniIndex],
+                (int) (hitboxX - model.getXDrawOffset()),
+                (int) (hitboxY - model.getYDrawOffset()),
                 model.getWidth(), model.getHeight(), null);
     }
 
@@ -17,16 +17,16 @@ public class SpikeRenderer {
     }
 
     /**
-     * Renders the spike
+     * Renders the spike at the given hitbox position
      */
-    public void render(Graphics g) {
+    public void render(Graphics g, float x, float y) {
         if (model.getSprite() != null) {
-            g.drawImage(model.getSprite(), (int) model.getHitbox().x,
-                       (int) (model.getHitbox().y - model.getHitbox().height),
+            g.drawImage(model.getSprite(), (int) x,
+                       (int) (y - model.getHitbox().height),
                        (int) model.getHitbox().width, (int) (model.getHitbox().height * 2), null);
         } else {
             g.setColor(java.awt.Color.MAGENTA);
-            g.fillRect((int) model.getHitbox().x, (int) model.getHitbox().y,
+            g.fillRect((int) x, (int) y,
                       (int) model.getHitbox().width, (int) model.getHitbox().height);
         }
     }
@@ -4,12 +4,12 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 import main.controller.Game;
-import utilities.LoadSave;
+import main.model.leaderboard.LeaderboardService;
+import main.model.leaderboard.LeaderboardStore;
+import main.model.leaderboard.ScoreEntry;
 
 public class Leaderboard {
     private final Game game;
@@ -28,60 +28,6 @@ public class Leaderboard {
         //old
     }
 
-    private static class Entry {
-        final String name;
-        final int level;
-        final int deaths;
-        final double time;
-
-        Entry(String name, int level, int deaths, double time) {
-            this.name = name;
-            this.level = level;
-            this.deaths = deaths;
-            this.time = time;
-        }
-    }
-
-    private List<Entry> loadEntriesForLevel(int levelIndex) {
-        List<String> lines = LoadSave.readScoreFile();
-        List<Entry> entries = new ArrayList<>();
-        int levelNumber = levelIndex + 1;
-
-        for (String line : lines) {
-            // Skip empty lines
-            if (line.trim().isEmpty()) {
-                continue;
-            }
-
-            String[] parts = line.split(";");
-            if (parts.length < 4) {
-                continue;
-            }
-            try {
-                String name = parts[0].trim();
-                int level = Integer.parseInt(parts[1].trim());
-                int deaths = Integer.parseInt(parts[2].trim());
-                // Handle both dot and comma decimal separators
-                String timeStr = parts[3].trim().replace(",", ".");
-                double time = Double.parseDouble(timeStr);
-                if (level == levelNumber) {
-                    entries.add(new Entry(name, level, deaths, time));
-                }
-            } catch (NumberFormatException ignored) {
-                System.out.println("Failed to parse leaderboard line: " + line);
-            }
-        }
-
-        // score per - Fewest deaths & lowest time (in seconds)
-        entries.sort(Comparator.comparingInt((Entry e) -> e.deaths).thenComparingDouble(e -> e.time));
-
-        // Keep only top 5 for this level
-        if (entries.size() > 5) {
-            return new ArrayList<>(entries.subList(0, 5));
-        }
-        return entries;
-    }
-
     //Switch the levels using keyboard in leaderboards
     public void nextLevel() {
         int totalLevels = 1;
@@ -144,17 +90,30 @@ public class Leaderboard {
 
         // rows
         g.setFont(rowFont);
-        List<Entry> entries = loadEntriesForLevel(currentLevelIndex);
+        // Kept up to date in memory, the score file is never read while drawing
+        List<ScoreEntry> entries = LeaderboardStore.getInstance().getTop(currentLevelIndex);
         int rowY = startY + 30;
         for (int i = 0; i < entries.size(); i++) {
-            Entry e = entries.get(i);
+            ScoreEntry e = entries.get(i);
             g.drawString(String.valueOf(i + 1), headerCalculatedColumnSpaceRank, rowY);
-            g.drawString(e.name, headerCalculatedColumnSpaceName, rowY);
-            g.drawString(String.valueOf(e.deaths), headerCalculatedColumnSpaceDeaths, rowY);
-            g.drawString(String.format("%.2f", e.time), headerCalculatedColumnSpaceTime, rowY);
+            g.drawString(e.getName(), headerCalculatedColumnSpaceName, rowY);
+            g.drawString(String.valueOf(e.getDeaths()), headerCalculatedColumnSpaceDeaths, rowY);
+            g.drawString(String.format("%.2f", e.getTimeSeconds()), headerCalculatedColumnSpaceTime, rowY);
             rowY += 26;
         }
 
+        // The player's own best, also when it didn't make the top
+        if (game != null && game.getPlayerName() != null) {
+            LeaderboardService service = LeaderboardStore.getInstance().getService();
+            ScoreEntry best = service.getPersonalBest(game.getPlayerName(), currentLevelIndex);
+            if (best != null) {
+                rowY += 26;
+                g.drawString("Your best: #" + service.getRank(best) + " of " + service.getRunCount(currentLevelIndex)
+                        + " runs, " + best.getDeaths() + " deaths, " + String.format("%.2f", best.getTimeSeconds())
+                        + "s", headerCalculatedColumnSpaceRank, rowY);
+            }
+        }
+
         g.setFont(new Font("Arial", Font.PLAIN, 16));
         g.drawString("Use LEFT or RIGHT to change level, ESC to return", 20, Game.GAME_HEIGHT - 30);
     }
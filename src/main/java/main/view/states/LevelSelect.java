@@ -8,6 +8,7 @@ import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 
+import main.model.Levels.LevelCatalog;
 import main.model.Levels.LevelManager;
 import main.controller.Game;
 import utilities.LoadSave;
@@ -24,7 +25,6 @@ public class LevelSelect {
     private Game game;
     private LevelManager levelManager;
     private ArrayList<Rectangle> levelBounds = new ArrayList<>();
-    private ArrayList<BufferedImage> levelPreviews = new ArrayList<>();
     private BufferedImage lockImage;
     private int hovered = -1;
     private Font titleFont = new Font("Arial", Font.BOLD, 48);
@@ -51,16 +51,7 @@ public class LevelSelect {
     }
     
     private void loadLevelPreviews() {
-        // Load preview images for each level
-        levelPreviews.add(LoadSave.getSpriteAtlas(LoadSave.LEVEL_ONE_DATA));
-        levelPreviews.add(LoadSave.getSpriteAtlas(LoadSave.LEVEL_TWO_DATA));
-        levelPreviews.add(LoadSave.getSpriteAtlas(LoadSave.LEVEL_THREE_DATA));
-        levelPreviews.add(LoadSave.getSpriteAtlas(LoadSave.LEVEL_FOUR_DATA));
-        levelPreviews.add(LoadSave.getSpriteAtlas(LoadSave.LEVEL_FIVE_DATA));
-        levelPreviews.add(LoadSave.getSpriteAtlas(LoadSave.LEVEL_SIX_DATA));
-        levelPreviews.add(LoadSave.getSpriteAtlas(LoadSave.LEVEL_SEVEN_DATA));
-        
-        // Load lock image
+        // Level previews come from the catalog when they are first drawn, only the lock is loaded here
         lockImage = LoadSave.getSpriteAtlas(LoadSave.LOCK);
     }
 
@@ -123,9 +114,10 @@ public class LevelSelect {
         g.setFont(levelFont);
         FontMetrics levelFontMetrics = g.getFontMetrics();
         
-        for (int i = 0; i < levelBounds.size() && i < levelPreviews.size(); i++) {
+        LevelCatalog catalog = levelManager.getCatalog();
+        for (int i = 0; i < levelBounds.size() && i < catalog.size(); i++) {
             Rectangle bounds = levelBounds.get(i);
-            BufferedImage preview = levelPreviews.get(i);
+            BufferedImage preview = catalog.getThumbnail(i);
             boolean isUnlocked = levelManager.isLevelUnlocked(i);
             
             // Draw border
@@ -163,7 +155,7 @@ public class LevelSelect {
             g.setColor(new Color(0, 0, 0, 150));
             g.fillRect(bounds.x, bounds.y + bounds.height - 40, bounds.width, 40);
             g.setColor(isUnlocked ? Color.WHITE : Color.GRAY);
-            String levelText = "Level " + (i + 1);
+            String levelText = catalog.get(i).getName();
             int textX = bounds.x + (bounds.width - levelFontMetrics.stringWidth(levelText)) / 2;
             int textY = bounds.y + bounds.height - 10;
             g.drawString(levelText, textX, textY);
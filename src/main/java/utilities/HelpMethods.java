@@ -1,68 +1,36 @@
 package utilities;
 
 import java.awt.geom.Rectangle2D;
-import java.util.HashSet;
-import java.util.Set;
 
 import main.controller.Game;
-
-import static main.controller.Game.GAME_HEIGHT;
+import main.model.Levels.CollisionMap;
+import main.model.Levels.TileLayer;
 
 public class HelpMethods {
 
-    // transparent/passable
-    private static final Set<Integer> NON_SOLID_TILES = new HashSet<Integer>() {
-        {
-            add(0);
-            add(1);
-            add(2);
-            add(9);
-            add(10);
-            add(11);
-            add(18);
-            add(19);
-            add(20);
-            add(27);
-            add(28);
-            add(29);
-            add(36);
-            add(37);
-            add(38);
-            add(39);
-            add(41);
-            add(45);
-            add(46);
-            add(47);
-            add(80);
-        }
-    };
-
-    public static boolean canMoveHere(float x, float y, float width, float height, int[][] lvlData) {
-        if (!checkIsSolid(x, y, lvlData)) {
-            if (!checkIsSolid(x + width, y + height, lvlData)) {
-                if (!checkIsSolid(x + width, y, lvlData)) {
-                    if (!checkIsSolid(x, y + height, lvlData)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
+    // transparent/passable, indexed by tile id
+    private static final boolean[] NON_SOLID_TILES = new boolean[81];
 
-    private static boolean checkIsSolid(float x, float y, int[][] lvlData) {
-        if (x < 0 || x >= Game.GAME_WIDTH) {
-            return true;
-        }
-        if (y < 0 || y >= Game.GAME_HEIGHT) {
-            return true;
+    static {
+        int[] nonSolid = {0, 1, 2, 9, 10, 11, 18, 19, 20, 27, 28, 29, 36, 37, 38, 39, 41, 45, 46, 47, 80};
+        for (int tile : nonSolid) {
+            NON_SOLID_TILES[tile] = true;
         }
+    }
 
-        float xIndex = x / Game.TILES_SIZE;
-        float yIndex = y / Game.TILES_SIZE;
+    /**
+     * @param value a tile id from the level data
+     * @return true if the player can't pass through that tile
+     */
+    public static boolean isSolidTile(int value) {
+        return value < 0 || value >= NON_SOLID_TILES.length || !NON_SOLID_TILES[value];
+    }
 
-        int value = lvlData[(int) yIndex][(int) xIndex];
-        return !NON_SOLID_TILES.contains(value);
+    public static boolean canMoveHere(float x, float y, float width, float height, CollisionMap collisionMap) {
+        return !collisionMap.isSolid(x, y)
+                && !collisionMap.isSolid(x + width, y + height)
+                && !collisionMap.isSolid(x + width, y)
+                && !collisionMap.isSolid(x, y + height);
     }
 
     public static float getEntityXPosNextToWall(Rectangle2D.Float hitbox, float xSpeed) {
@@ -92,22 +60,18 @@ public class HelpMethods {
         }
     }
 
-    public static boolean isEntityOnFloor(Rectangle2D.Float hitbox, int[][] lvlData) {
+    public static boolean isEntityOnFloor(Rectangle2D.Float hitbox, CollisionMap collisionMap) {
         //kolla pixel nere höger och vänster
-        if (hitbox.y + hitbox.height >= GAME_HEIGHT - 32) {
+        if (hitbox.y + hitbox.height >= collisionMap.getHeightInTiles() * Game.TILES_SIZE - 32) {
             return false;
         }
-        if (!checkIsSolid(hitbox.x, hitbox.y + hitbox.height + 1, lvlData)) {
-            if (!checkIsSolid(hitbox.x + hitbox.width, hitbox.y + hitbox.height + 1, lvlData)) {
-                return false;
-
-            }
-        }
-        return true;
+        return collisionMap.isSolid(hitbox.x, hitbox.y + hitbox.height + 1)
+                || collisionMap.isSolid(hitbox.x + hitbox.width, hitbox.y + hitbox.height + 1);
     }
 
-    public static boolean isEntityDead(Rectangle2D.Float hitbox, int[][] lvlData) {
-        if (hitbox.y + hitbox.height >= GAME_HEIGHT - 5) {
+    public static boolean isEntityDead(Rectangle2D.Float hitbox, TileLayer lvlData) {
+        // Fell out of the bottom of the level
+        if (hitbox.y + hitbox.height >= lvlData.getHeight() * Game.TILES_SIZE - 5) {
             return true;
         }
         //implement collision with obstacle.
@@ -125,7 +89,7 @@ public class HelpMethods {
         }
     }
 
-    public static boolean isOnLevelEnd(Rectangle2D.Float hitbox, int[][] lvlData) {
+    public static boolean isOnLevelEnd(Rectangle2D.Float hitbox, TileLayer lvlData) {
         // Check all corners of the hitbox for the level-end tile (45)
         int leftTile = (int) (hitbox.x / Game.TILES_SIZE);
         int rightTile = (int) ((hitbox.x + hitbox.width) / Game.TILES_SIZE);
@@ -133,14 +97,14 @@ public class HelpMethods {
         int bottomTile = (int) ((hitbox.y + hitbox.height) / Game.TILES_SIZE);
 
         // Bounds check
-        if (leftTile < 0 || rightTile >= lvlData[0].length || topTile < 0 || bottomTile >= lvlData.length) {
+        if (!lvlData.contains(leftTile, topTile) || !lvlData.contains(rightTile, bottomTile)) {
             return false;
         }
 
         // Check if any part of the hitbox is on tile 45
         for (int y = topTile; y <= bottomTile; y++) {
             for (int x = leftTile; x <= rightTile; x++) {
-                if (lvlData[y][x] == 45) {
+                if (lvlData.get(x, y) == 45) {
                     return true;
                 }
             }
@@ -149,31 +113,32 @@ public class HelpMethods {
     }
 
 
-    public static float findGroundY(float x, float y, int spriteHeight, int[][] lvlData) {
+    public static float findGroundY(float x, float y, int spriteHeight, CollisionMap collisionMap) {
         // Align Y to grid
         float alignedY = (float) (Math.floor(y / Game.TILES_SIZE) * Game.TILES_SIZE);
 
         // Create a temporary hitbox to check if already on ground
         Rectangle2D.Float tempHitbox = new Rectangle2D.Float(x, alignedY, Game.TILES_SIZE, spriteHeight);
-        if (isEntityOnFloor(tempHitbox, lvlData)) {
+        if (isEntityOnFloor(tempHitbox, collisionMap)) {
             return alignedY; // Already on ground
         }
 
         // Search downward for the first solid tile
         float currentY = alignedY;
-        int maxSearch = (int) (Game.GAME_HEIGHT / Game.TILES_SIZE);
+        int maxSearch = collisionMap.getHeightInTiles();
+        int levelHeight = collisionMap.getHeightInTiles() * Game.TILES_SIZE;
 
         for (int i = 0; i < maxSearch; i++) {
             currentY += Game.TILES_SIZE;
             tempHitbox.y = currentY;
 
-            if (isEntityOnFloor(tempHitbox, lvlData)) {
+            if (isEntityOnFloor(tempHitbox, collisionMap)) {
                 // Found ground, position sprite on top of it (already grid-aligned)
                 return currentY;
             }
 
             // Check if we've gone past the bottom of the level
-            if (currentY + spriteHeight >= GAME_HEIGHT - 1000) {
+            if (currentY + spriteHeight >= levelHeight - 1000) {
                 // No valid ground found - would fall off screen
                 return -1;
             }
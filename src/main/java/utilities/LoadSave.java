@@ -1,8 +1,13 @@
 package utilities;
 
-import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
 import java.awt.image.BufferedImage;
-import java.io.BufferedReader;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
@@ -10,13 +15,23 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import main.controller.Game;
+import main.model.Levels.TileLayer;
+import main.model.leaderboard.ScoreEntry;
+import main.model.leaderboard.ScoreLog;
+import main.model.leaderboard.ScoreLogMigrator;
 
 public class LoadSave {
 
@@ -59,39 +74,120 @@ public class LoadSave {
     public static final String QUIT_BUTTON_HOVER = "QuitButtonHover.png";
     public static final String QUIT_BUTTON_CLICK = "QuitButtonClick.png";
 
-    // LEVEL1
-    public static final String LEVEL_ONE_DATA = "Level1.png";
-    public static final String LEVEL_ONE_OBSTACLE_DATA = "Level1Obstacles.png";
-    public static final String LEVEL_ONE_OBJ_DATA = "Level1Objects.png";
-    // LEVEL2
-    public static final String LEVEL_TWO_DATA = "Level2.png";
-    public static final String LEVEL_TWO_OBSTACLE_DATA = "Level2Obstacles.png";
-    public static final String LEVEL_TWO_OBJ_DATA = "Level2Objects.png";
-    // LEVEL3
-    public static final String LEVEL_THREE_DATA = "Level3.png";
-    public static final String LEVEL_THREE_OBSTACLE_DATA = "Level3Obstacles.png";
-    public static final String LEVEL_THREE_OBJ_DATA = "Level3Objects.png";
-    // LEVEL4
-    public static final String LEVEL_FOUR_DATA = "Level4.png";
-    public static final String LEVEL_FOUR_OBSTACLE_DATA = "Level4Obstacles.png";
-    public static final String LEVEL_FOUR_OBJ_DATA = "Level4Objects.png";
-    // LEVEL5
-    public static final String LEVEL_FIVE_DATA = "Level5.png";
-    public static final String LEVEL_FIVE_OBSTACLE_DATA = "Level5Obstacles.png";
-    public static final String LEVEL_FIVE_OBJ_DATA = "Level5Objects.png";
-    // LEVEL6
-    public static final String LEVEL_SIX_DATA = "Level6.png";
-    public static final String LEVEL_SIX_OBSTACLE_DATA = "Level6Obstacles.png";
-    public static final String LEVEL_SIX_OBJ_DATA = "Level6Objects.png";
-    // LEVEL7
-    public static final String LEVEL_SEVEN_DATA = "Level7.png";
-    public static final String LEVEL_SEVEN_OBSTACLE_DATA = "Level7Obstacles.png";
-    public static final String LEVEL_SEVEN_OBJ_DATA = "Level7Objects.png";
+    // Colour channels of the level images
+    public static final int RED = 0;
+    public static final int GREEN = 1;
+    public static final int BLUE = 2;
+
+    // Images every state needs, decoded once at startup so the first frames don't stall
+    private static final String[] STARTUP_IMAGES = {
+        PLAYER_ATLAS, PLAYER_DEAD, LEVEL_ATLAS, OBJECT_ATLAS, BG_DATA, TRANSITION_IMG, SPAWN_TUBE, LOCK,
+        MENU_BACKGROUND, PLAY_BUTTON_NORMAL, PLAY_BUTTON_HOVER, PLAY_BUTTON_CLICK
+    };
+
+    // Tile ids are stored as colour values, anything above this is treated as this
+    private static final int MAX_TILE_VALUE = 80;
 
     // leaderboard
     private static final String LEADERBOARD_FILE_NAME = "leaderboard.txt";
+    private static ScoreLog scoreLog;
+    // Set once opening the log failed, the text file is used from then on
+    private static boolean scoreLogFailed;
+
+    // Decoded images keyed by resource name, shared by the whole process
+    private static final Map<String, BufferedImage> IMAGE_CACHE = new ConcurrentHashMap<>();
+    private static final AtomicLong IMAGE_CACHE_HITS = new AtomicLong();
+    private static final AtomicLong IMAGE_CACHE_MISSES = new AtomicLong();
+    private static final AtomicLong IMAGE_CACHE_BYTES = new AtomicLong();
 
+    /**
+     * Returns the image with the given resource name. The first call decodes it and converts it to the
+     * screen's pixel format, every later call gets the same cached instance back. Callers must not draw
+     * into the returned image.
+     *
+     * @param fileName resource name relative to the classpath root
+     * @return the image, or null if it could not be loaded
+     */
     public static BufferedImage getSpriteAtlas(String fileName) {
+        BufferedImage cached = IMAGE_CACHE.get(fileName);
+        if (cached != null) {
+            IMAGE_CACHE_HITS.incrementAndGet();
+            return cached;
+        }
+        // Failed loads are not stored (the map can't hold null), so a missing file is retried next call
+        return IMAGE_CACHE.computeIfAbsent(fileName, name -> {
+            IMAGE_CACHE_MISSES.incrementAndGet();
+            BufferedImage img = readImage(name);
+            if (img == null) {
+                return null;
+            }
+            BufferedImage compatible = toCompatibleImage(img);
+            IMAGE_CACHE_BYTES.addAndGet(getImageBytes(compatible));
+            return compatible;
+        });
+    }
+
+    /**
+     * Decodes the given images into the cache up front.
+     *
+     * @param fileNames resource names to load
+     */
+    public static void preload(String... fileNames) {
+        for (String fileName : fileNames) {
+            getSpriteAtlas(fileName);
+        }
+    }
+
+    /**
+     * Decodes the images used by the menus and the first level.
+     */
+    public static void preloadStartupImages() {
+        preload(STARTUP_IMAGES);
+    }
+
+    public static long getImageCacheHits() {
+        return IMAGE_CACHE_HITS.get();
+    }
+
+    public static long getImageCacheMisses() {
+        return IMAGE_CACHE_MISSES.get();
+    }
+
+    /**
+     * @return total size of the decoded pixel data held by the cache, in bytes
+     */
+    public static long getImageCacheBytes() {
+        return IMAGE_CACHE_BYTES.get();
+    }
+
+    public static int getImageCacheSize() {
+        return IMAGE_CACHE.size();
+    }
+
+    private static BufferedImage toCompatibleImage(BufferedImage img) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return img;
+        }
+        GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        if (img.getColorModel().equals(gc.getColorModel())) {
+            return img;
+        }
+        BufferedImage compatible = gc.createCompatibleImage(img.getWidth(), img.getHeight(), img.getTransparency());
+        Graphics2D g = compatible.createGraphics();
+        g.drawImage(img, 0, 0, null);
+        g.dispose();
+        return compatible;
+    }
+
+    private static long getImageBytes(BufferedImage img) {
+        DataBuffer buffer = img.getRaster().getDataBuffer();
+        long bitsPerElement = DataBuffer.getDataTypeSize(buffer.getDataType());
+        return (long) buffer.getSize() * buffer.getNumBanks() * bitsPerElement / 8;
+    }
+
+    // Level data images are read for their raw pixel values once, so they skip the cache
+    private static BufferedImage readImage(String fileName) {
         BufferedImage img = null;
         InputStream inputStream = LoadSave.class.getResourceAsStream("/" + fileName);
 
@@ -115,61 +211,116 @@ public class LoadSave {
         return img;
     }
 
-    public static int[][] getLevelData(String levelFileName) {
-        int[][] lvlData = new int[Game.TILES_IN_HEIGHT][Game.TILES_IN_WIDTH];
-        BufferedImage img = getSpriteAtlas(levelFileName);
-        if (img == null) {
-            return lvlData;
-        }
-        for (int j = 0; j < img.getHeight(); j++) {
-            for (int i = 0; i < img.getWidth(); i++) {
-                Color color = new Color(img.getRGB(i, j));
-                int value = color.getRed();
-                if (value >= 80) {
-                    value = 80;
+    /**
+     * Reads the width and height of an image from its header without decoding the pixels.
+     *
+     * @param fileName resource name relative to the classpath root
+     * @return the size, or null if the image could not be read
+     */
+    public static Dimension readImageSize(String fileName) {
+        try (InputStream inputStream = LoadSave.class.getResourceAsStream("/" + fileName)) {
+            if (inputStream == null) {
+                System.err.println("Could not load image: /" + fileName);
+                return null;
+            }
+            try (ImageInputStream imageStream = ImageIO.createImageInputStream(inputStream)) {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(imageStream);
+                if (!readers.hasNext()) {
+                    return null;
+                }
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(imageStream, true, true);
+                    return new Dimension(reader.getWidth(0), reader.getHeight(0));
+                } finally {
+                    reader.dispose();
                 }
-                lvlData[j][i] = value;
             }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
         }
-        return lvlData;
     }
 
-    public static int[][] getLevelObstacleData(String levelFileName) {
-        int[][] lvlData = new int[Game.TILES_IN_HEIGHT][Game.TILES_IN_WIDTH];
-        BufferedImage img = getSpriteAtlas(levelFileName);
+    public static TileLayer getLevelData(String levelFileName) {
+        return readLevelChannel(levelFileName, RED);
+    }
+
+    /**
+     * @param tiles the level's tile layer, a missing image gives an empty layer of the same size
+     */
+    public static TileLayer getLevelObstacleData(String levelFileName, TileLayer tiles) {
+        return readLevelChannel(readImage(levelFileName), GREEN, tiles.getWidth(), tiles.getHeight());
+    }
+
+    /**
+     * @param tiles the level's tile layer, a missing image gives an empty layer of the same size
+     */
+    public static TileLayer getLevelObjData(String levelFileName, TileLayer tiles) {
+        return readLevelChannel(readImage(levelFileName), BLUE, tiles.getWidth(), tiles.getHeight());
+    }
+
+    /**
+     * Reads one colour channel of a level image from disk instead of the classpath, used to reload levels
+     * while editing them.
+     *
+     * @param levelFile level image file
+     * @param channel   {@link #RED}, {@link #GREEN} or {@link #BLUE}
+     * @return the tile layer
+     * @throws IOException if the image can't be decoded, for example because it is still being written
+     */
+    public static TileLayer readLevelData(Path levelFile, int channel) throws IOException {
+        BufferedImage img = ImageIO.read(levelFile.toFile());
         if (img == null) {
-            return lvlData;
-        }
-        for (int j = 0; j < img.getHeight(); j++) {
-            for (int i = 0; i < img.getWidth(); i++) {
-                Color color = new Color(img.getRGB(i, j));
-                int value = color.getGreen();
-                if (value >= 80) {
-                    value = 80;
-                }
-                lvlData[j][i] = value;
-            }
+            throw new IOException(levelFile + " is not an image that can be read");
         }
-        return lvlData;
+        return readLevelChannel(img, channel, img.getWidth(), img.getHeight());
+    }
+
+    /**
+     * Reads one colour channel of a level image into a tile layer with one tile per pixel, so the level is
+     * as large as its image. Values are clamped to {@value #MAX_TILE_VALUE}.
+     * The whole channel is pulled out of the raster in one call instead of going through getRGB per pixel.
+     *
+     * @param levelFileName level image resource
+     * @param channel       {@link #RED}, {@link #GREEN} or {@link #BLUE}
+     * @return the tile layer, an empty screen sized layer if the image could not be loaded
+     */
+    public static TileLayer readLevelChannel(String levelFileName, int channel) {
+        return readLevelChannel(readImage(levelFileName), channel, Game.TILES_IN_WIDTH, Game.TILES_IN_HEIGHT);
     }
 
-    public static int[][] getLevelObjData(String levelFileName) {
-        int[][] lvlData = new int[Game.TILES_IN_HEIGHT][Game.TILES_IN_WIDTH];
-        BufferedImage img = getSpriteAtlas(levelFileName);
+    // A missing image gives an empty layer of the given size
+    private static TileLayer readLevelChannel(BufferedImage img, int channel, int emptyWidth, int emptyHeight) {
         if (img == null) {
-            return lvlData;
-        }
-        for (int j = 0; j < img.getHeight(); j++) {
-            for (int i = 0; i < img.getWidth(); i++) {
-                Color color = new Color(img.getRGB(i, j));
-                int value = color.getBlue();
-                if (value >= 80) {
-                    value = 80;
-                }
-                lvlData[j][i] = value;
+            return new TileLayer(emptyWidth, emptyHeight);
+        }
+        int width = img.getWidth();
+        int height = img.getHeight();
+
+        int[] samples;
+        Raster raster = img.getRaster();
+        if (img.getColorModel() instanceof ComponentColorModel
+                && img.getColorModel().getColorSpace().isCS_sRGB()
+                && raster.getNumBands() >= 3
+                && raster.getSampleModel().getSampleSize(channel) == 8) {
+            // Plain 8 bit RGB(A), the bands are the colour channels as stored in the file
+            samples = raster.getSamples(0, 0, width, height, channel, (int[]) null);
+        } else {
+            // Palette or packed images, let the colour model convert the whole area at once
+            samples = img.getRGB(0, 0, width, height, null, 0, width);
+            int shift = 16 - channel * 8;
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = (samples[i] >> shift) & 0xFF;
             }
         }
-        return lvlData;
+
+        // Samples come out row by row, the same order the layer stores them in
+        byte[] tiles = new byte[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            tiles[i] = (byte) Math.min(samples[i], MAX_TILE_VALUE);
+        }
+        return new TileLayer(width, height, tiles);
     }
 
     private static Path getLeaderboardPath() {
@@ -184,38 +335,99 @@ public class LoadSave {
         return path.resolve(LEADERBOARD_FILE_NAME);
     }
 
+    /**
+     * The score log next to the old text score file, opened on first use. The scores of the text file are
+     * moved into it the first time, after that the text file is no longer read or written.
+     * Opening is only tried once. If it fails the scores keep going to the text file like before the log.
+     *
+     * @return the log, or null if it could not be opened
+     */
+    public static synchronized ScoreLog getScoreLog() {
+        if (scoreLog == null && !scoreLogFailed) {
+            Path textFile = getLeaderboardPath();
+            try {
+                ScoreLog log = ScoreLog.open(textFile.getParent());
+                int imported = ScoreLogMigrator.migrate(textFile, log);
+                if (imported > 0) {
+                    System.out.println("Moved " + imported + " scores from " + textFile + " to " + log.getDataFile());
+                }
+                scoreLog = log;
+            } catch (IOException e) {
+                scoreLogFailed = true;
+                System.err.println("Could not open the score log, using " + textFile + " instead: " + e);
+            }
+        }
+        return scoreLog;
+    }
+
     public static void appendToScoreFile(String playerName, int levelIndex, double timeSeconds, int deaths) {
-        Path path = getLeaderboardPath();
-        int humanLevel = levelIndex + 1;
-
-        String timeStr = String.format(Locale.US, "%.2f", timeSeconds);
-        String line = playerName + ";" + humanLevel + ";" + deaths + ";" + timeStr;
-
-        try (BufferedWriter writer = Files.newBufferedWriter(
-                path,
-                StandardCharsets.UTF_8,
-                java.nio.file.StandardOpenOption.CREATE,
-                java.nio.file.StandardOpenOption.APPEND)) {
-            writer.write(line);
-            writer.newLine();
+        appendScores(List.of(new ScoreEntry(playerName, levelIndex, deaths, timeSeconds)));
+    }
+
+    /**
+     * Appends several runs to the score log in one write, or to the text file if the log can't be opened.
+     */
+    public static void appendScores(List<ScoreEntry> entries) {
+        ScoreLog log = getScoreLog();
+        try {
+            if (log == null) {
+                appendToTextFile(entries);
+            } else {
+                log.append(entries);
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    public static List<String> readScoreFile() {
-        List<String> lines = new ArrayList<>();
-        Path path = getLeaderboardPath();
-        if (!Files.exists(path)) {
-            return lines;
-        }
-        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                lines.add(line);
-            }
+    /**
+     * @return every run in the score log, or in the text file if the log can't be opened, in the order they
+     *         were logged
+     */
+    public static List<ScoreEntry> readScores() {
+        ScoreLog log = getScoreLog();
+        try {
+            return log == null ? ScoreLogMigrator.readTextFile(getLeaderboardPath()) : log.readAll();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * @return the runs other game instances logged since the last call, or null if one of them compacted the
+     *         log and it has to be read again with {@link #readScores()}
+     */
+    public static List<ScoreEntry> readNewScores() {
+        ScoreLog log = getScoreLog();
+        if (log == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return log.readNew();
         } catch (IOException e) {
             e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    private static void appendToTextFile(List<ScoreEntry> entries) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(getLeaderboardPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (ScoreEntry entry : entries) {
+                writer.write(entry.toLine());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * @return every run as a line in the old {@code name;level;deaths;time} format
+     */
+    public static List<String> readScoreFile() {
+        List<String> lines = new ArrayList<>();
+        for (ScoreEntry entry : readScores()) {
+            lines.add(entry.toLine());
         }
         return lines;
     }